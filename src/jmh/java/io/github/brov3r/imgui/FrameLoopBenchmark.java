@@ -0,0 +1,227 @@
+package io.github.brov3r.imgui;
+
+import imgui.ImGui;
+import imgui.ImGuiIO;
+import imgui.flag.ImGuiCond;
+import imgui.flag.ImGuiTableFlags;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the ImGui frame loop of {@link ImGuiManager} on a headless context.
+ * The context has no GLFW or GL3 backend: a frame is built with the manager's widget loop and ImGui produces
+ * draw data, which is not submitted to a GPU. Run with {@code ./gradlew jmh}; the GC profiler reports the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FrameLoopBenchmark {
+    /**
+     * Number of synthetic widgets in the frame.
+     */
+    @Param({"1", "10", "50"})
+    public int widgetCount;
+
+    /**
+     * Kind of content rendered by the synthetic widgets.
+     */
+    @Param({"TEXT", "TABLE", "WINDOWS"})
+    public Content content;
+
+    /**
+     * The ImGuiIO of the headless context.
+     */
+    private ImGuiIO io;
+
+    /**
+     * The synthetic widgets in render order.
+     */
+    private ImGuiWidget[] widgets;
+
+    /**
+     * Creates the headless context and the synthetic widgets.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        io = ImGuiManager.createHeadlessContext(1920, 1080);
+
+        widgets = new ImGuiWidget[widgetCount];
+        for (int i = 0; i < widgetCount; i++) {
+            widgets[i] = new SyntheticWidget(content, i);
+        }
+    }
+
+    /**
+     * Destroys the headless context.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ImGuiManager.destroyHeadlessContext();
+    }
+
+    /**
+     * Builds one frame the way {@link ImGuiManager#render()} does, without the GL submission.
+     *
+     * @return the number of vertices produced, so the frame is not optimized away
+     */
+    @Benchmark
+    public int frame() {
+        io.setDeltaTime(1f / 144f);
+
+        ImGui.newFrame();
+        ImGuiManager.buildFrame(widgets, System.nanoTime());
+        ImGui.render();
+
+        return ImGui.getDrawData().getTotalVtxCount();
+    }
+
+    /**
+     * Kind of content rendered by a synthetic widget.
+     */
+    public enum Content {
+        /**
+         * One window with many lines of text.
+         */
+        TEXT,
+
+        /**
+         * One window with a table.
+         */
+        TABLE,
+
+        /**
+         * Many small windows with a few items each.
+         */
+        WINDOWS
+    }
+
+    /**
+     * Widget that renders a fixed amount of synthetic content.
+     */
+    private static class SyntheticWidget extends ImGuiWidget {
+        /**
+         * Number of text lines or table rows per widget.
+         */
+        private static final int ROWS = 40;
+
+        /**
+         * Number of windows per widget for {@link Content#WINDOWS}.
+         */
+        private static final int WINDOWS = 10;
+
+        /**
+         * Kind of content to render.
+         */
+        private final Content content;
+
+        /**
+         * Window titles, prepared once to keep string building out of the measurement.
+         */
+        private final String[] titles;
+
+        /**
+         * Text lines, prepared once to keep string building out of the measurement.
+         */
+        private final String[] lines = new String[ROWS];
+
+        /**
+         * Creates a synthetic widget.
+         *
+         * @param content the kind of content to render.
+         * @param index   the index of the widget, used to make window titles unique.
+         */
+        SyntheticWidget(Content content, int index) {
+            this.content = content;
+
+            int windowCount = content == Content.WINDOWS ? WINDOWS : 1;
+            titles = new String[windowCount];
+            for (int i = 0; i < windowCount; i++) {
+                titles[i] = "Widget " + index + " / " + i;
+            }
+
+            for (int i = 0; i < ROWS; i++) {
+                lines[i] = "Line " + i + ": Lorem ipsum dolor sit amet, consectetur adipiscing elit";
+            }
+        }
+
+        /**
+         * Renders the synthetic content.
+         */
+        @Override
+        public void render() {
+            switch (content) {
+                case TEXT -> renderText();
+                case TABLE -> renderTable();
+                case WINDOWS -> renderWindows();
+            }
+        }
+
+        /**
+         * Renders one window with many lines of text.
+         */
+        private void renderText() {
+            ImGui.setNextWindowSize(400, 600, ImGuiCond.FirstUseEver);
+            ImGui.begin(titles[0]);
+
+            for (String line : lines) {
+                ImGui.text(line);
+            }
+
+            ImGui.end();
+        }
+
+        /**
+         * Renders one window with a table.
+         */
+        private void renderTable() {
+            ImGui.setNextWindowSize(500, 600, ImGuiCond.FirstUseEver);
+            ImGui.begin(titles[0]);
+
+            if (ImGui.beginTable("##table", 4, ImGuiTableFlags.Borders | ImGuiTableFlags.RowBg)) {
+                for (int row = 0; row < ROWS; row++) {
+                    ImGui.tableNextRow();
+                    for (int column = 0; column < 4; column++) {
+                        ImGui.tableNextColumn();
+                        ImGui.text(lines[row]);
+                    }
+                }
+                ImGui.endTable();
+            }
+
+            ImGui.end();
+        }
+
+        /**
+         * Renders many small windows.
+         */
+        private void renderWindows() {
+            for (String title : titles) {
+                ImGui.setNextWindowSize(200, 120, ImGuiCond.FirstUseEver);
+                ImGui.begin(title);
+
+                ImGui.text(lines[0]);
+                ImGui.button("Button");
+                ImGui.separator();
+                ImGui.text(lines[1]);
+
+                ImGui.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package io.github.brov3r.imgui;
+
+import imgui.ImGui;
+import imgui.ImGuiIO;
+import imgui.flag.ImGuiCond;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks and checks the retained mode of {@link ImGuiManager} on a headless context.
+ * Frames are decided by {@link ImGuiManager#shouldRebuildFrame}, the same decision {@link ImGuiManager#render()} makes,
+ * on a simulated clock. The trial fails if settled idle frames are not replayed, or if a change, interaction, a resume,
+ * a due scheduled update or a deferred change of a throttled widget does not rebuild the frame when it should;
+ * every measurement iteration fails if a replayed frame rendered the widgets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class RetainedModeBenchmark {
+    /**
+     * Number of widgets in the frame.
+     */
+    private static final int WIDGET_COUNT = 20;
+
+    /**
+     * Number of frames between two changes of the displayed data.
+     */
+    private static final int DIRTY_INTERVAL = 60;
+
+    /**
+     * Duration of a simulated frame in nanoseconds, at 144 frames per second.
+     */
+    private static final long FRAME_NANOS = 1_000_000_000L / 144;
+
+    /**
+     * Update frequency of the scheduled widget in Hz.
+     */
+    private static final int SCHEDULED_RATE = 10;
+
+    /**
+     * Maximum number of frames to wait for an expected replay or rebuild.
+     */
+    private static final int MAX_WAIT_FRAMES = 144;
+
+    /**
+     * The ImGuiIO of the headless context.
+     */
+    private ImGuiIO io;
+
+    /**
+     * The widgets in render order.
+     */
+    private CountingWidget[] widgets;
+
+    /**
+     * The widgets followed by a widget with a limited update rate.
+     */
+    private CountingWidget[] scheduledWidgets;
+
+    /**
+     * Current time of the simulated clock in nanoseconds.
+     */
+    private long now = 1_000_000_000L;
+
+    /**
+     * Number of frames produced in the current iteration.
+     */
+    private long frames;
+
+    /**
+     * Counters at the start of the iteration.
+     */
+    private long rebuiltAtStart, replayedAtStart, rendersAtStart;
+
+    /**
+     * Creates the headless context and the widgets, enables the retained mode and checks the decisions.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        io = ImGuiManager.createHeadlessContext(1920, 1080);
+
+        widgets = new CountingWidget[WIDGET_COUNT];
+        for (int i = 0; i < WIDGET_COUNT; i++) {
+            widgets[i] = new CountingWidget("Widget " + i);
+        }
+
+        CountingWidget scheduled = new CountingWidget("Scheduled");
+        scheduled.setUpdateRate(SCHEDULED_RATE);
+        scheduledWidgets = Arrays.copyOf(widgets, WIDGET_COUNT + 1);
+        scheduledWidgets[WIDGET_COUNT] = scheduled;
+
+        ImGuiManager.setRetainedMode(true);
+        verifyDecisions();
+    }
+
+    /**
+     * Disables the retained mode and destroys the headless context.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ImGuiManager.setRetainedMode(false);
+        ImGuiManager.destroyHeadlessContext();
+    }
+
+    /**
+     * Remembers the counters at the start of the iteration.
+     */
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        frames = 0;
+        rebuiltAtStart = ImGuiManager.getRebuiltFrames();
+        replayedAtStart = ImGuiManager.getReplayedFrames();
+        rendersAtStart = widgets[0].renders;
+    }
+
+    /**
+     * Fails the measurement iteration if replayed frames rendered the widgets or no frame was replayed.
+     *
+     * @param params the parameters of the finished iteration.
+     */
+    @TearDown(Level.Iteration)
+    public void verifyIteration(IterationParams params) {
+        if (params.getType() != IterationType.MEASUREMENT || frames == 0) return;
+
+        long rebuilt = ImGuiManager.getRebuiltFrames() - rebuiltAtStart;
+        long replayed = ImGuiManager.getReplayedFrames() - replayedAtStart;
+        long renders = widgets[0].renders - rendersAtStart;
+
+        if (renders != rebuilt) {
+            throw new IllegalStateException(String.format("Widgets were rendered %d times in %d rebuilt frames", renders, rebuilt));
+        }
+        if (replayed == 0) {
+            throw new IllegalStateException(String.format("None of %d frames was replayed", frames));
+        }
+    }
+
+    /**
+     * Produces one frame in the retained mode; the displayed data changes every {@value #DIRTY_INTERVAL} frames.
+     *
+     * @return the number of vertices of the current draw data, so the frame is not optimized away
+     */
+    @Benchmark
+    public int frame() {
+        if (++frames % DIRTY_INTERVAL == 0) {
+            widgets[0].markDirty();
+        }
+
+        produceFrame(widgets, false, false);
+        return ImGui.getDrawData().getTotalVtxCount();
+    }
+
+    /**
+     * Advances the simulated clock by one frame and rebuilds the frame if the manager decides so;
+     * otherwise the previous draw data is kept for replay, as in {@link ImGuiManager#render()}.
+     *
+     * @param visibleWidgets the visible widgets in render order.
+     * @param resumed        {@code true} if the frame follows frames without visible widgets.
+     * @param interacting    {@code true} if the user interacts with ImGui.
+     * @return {@code true} if the frame was rebuilt, {@code false} if it was replayed.
+     */
+    private boolean produceFrame(ImGuiWidget[] visibleWidgets, boolean resumed, boolean interacting) {
+        now += FRAME_NANOS;
+        if (!ImGuiManager.shouldRebuildFrame(visibleWidgets, now, resumed, interacting)) return false;
+
+        io.setDeltaTime(FRAME_NANOS / 1e9f);
+
+        ImGui.newFrame();
+        ImGuiManager.buildFrame(visibleWidgets, now);
+        ImGui.render();
+        return true;
+    }
+
+    /**
+     * Checks the decisions of the manager for each reason to rebuild a frame.
+     */
+    private void verifyDecisions() {
+        // A change rebuilds the frames until the layout settles, then idle frames are replayed
+        widgets[0].markDirty();
+        for (int i = 0; i < RetainedFrameTracker.SETTLE_FRAMES; i++) {
+            check(produceFrame(widgets, false, false), "Settle frame " + i + " after a change was not rebuilt");
+        }
+
+        long renders = widgets[0].renders;
+        int vertices = ImGui.getDrawData().getTotalVtxCount();
+        for (int i = 0; i < DIRTY_INTERVAL; i++) {
+            check(!produceFrame(widgets, false, false), "Idle frame " + i + " was rebuilt instead of replayed");
+        }
+        check(widgets[0].renders == renders && ImGui.getDrawData().getTotalVtxCount() == vertices,
+                "Replayed frames did not keep the previous draw data");
+
+        widgets[0].markDirty();
+        check(produceFrame(widgets, false, false), "Dirty frame was not rebuilt");
+        check(widgets[0].renders == renders + 1, "Dirty frame did not render the widgets");
+        settle(widgets);
+
+        check(produceFrame(widgets, false, true), "Frame during an interaction was not rebuilt");
+        check(!produceFrame(widgets, false, false), "Idle frame after an interaction was rebuilt");
+
+        check(produceFrame(widgets, true, false), "Frame after resuming from idle was not rebuilt");
+        check(!produceFrame(widgets, false, false), "Idle frame after resuming was rebuilt");
+
+        verifyScheduledUpdate();
+        verifyThrottling();
+    }
+
+    /**
+     * Checks that a due scheduled update rebuilds the frame and that the frames in between are replayed.
+     */
+    private void verifyScheduledUpdate() {
+        CountingWidget scheduled = (CountingWidget) scheduledWidgets[WIDGET_COUNT];
+        settle(scheduledWidgets);
+
+        long updates = scheduled.updates;
+        int replayed = 0;
+        while (!produceFrame(scheduledWidgets, false, false)) {
+            check(++replayed <= MAX_WAIT_FRAMES, "Due scheduled update did not rebuild the frame");
+        }
+        check(scheduled.updates == updates + 1, "Frame rebuilt for a scheduled update did not update the widget");
+    }
+
+    /**
+     * Checks that, while the widgets are throttled by the frame budget, their changes rebuild the frame at the
+     * throttled rate and are replayed in between, while interaction still rebuilds the frame immediately.
+     */
+    private void verifyThrottling() {
+        FrameBudget budget = ImGuiManager.getFrameBudget();
+        budget.setBudget(1);
+        for (int i = 0; i < 100; i++) {
+            budget.record(10_000_000L);
+        }
+        check(budget.getMaxRate(widgets[0].getPriority()) > 0, "Widgets of normal priority are not throttled far above the budget");
+
+        try {
+            widgets[0].markDirty();
+            settle(widgets);
+
+            widgets[0].markDirty();
+            int replayed = 0;
+            while (!produceFrame(widgets, false, false)) {
+                check(++replayed <= MAX_WAIT_FRAMES, "Deferred change of a throttled widget was never rebuilt");
+            }
+            long period = 1_000_000_000L / FrameBudget.THROTTLED_RATE;
+            check(replayed > 0 && replayed <= period / FRAME_NANOS + 1,
+                    "Deferred change was rebuilt after " + replayed + " replayed frames instead of at the throttled rate");
+            settle(widgets);
+
+            check(produceFrame(widgets, false, true), "Frame during an interaction was not rebuilt while throttled");
+        } finally {
+            budget.setBudget(0);
+        }
+    }
+
+    /**
+     * Produces frames until one is replayed.
+     *
+     * @param visibleWidgets the visible widgets in render order.
+     */
+    private void settle(ImGuiWidget[] visibleWidgets) {
+        for (int i = 0; i <= MAX_WAIT_FRAMES; i++) {
+            if (!produceFrame(visibleWidgets, false, false)) return;
+        }
+        throw new IllegalStateException("Frames were still rebuilt after " + MAX_WAIT_FRAMES + " idle frames");
+    }
+
+    /**
+     * Fails the trial if a condition does not hold.
+     *
+     * @param condition the condition.
+     * @param message   the failure message.
+     */
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new IllegalStateException(message);
+    }
+
+    /**
+     * Widget that opens a window with some text and counts its updates and renders.
+     */
+    private static class CountingWidget extends ImGuiWidget {
+        /**
+         * Window title, prepared once.
+         */
+        private final String title;
+
+        /**
+         * Number of calls to {@link #update()} and {@link #render()}.
+         */
+        long updates, renders;
+
+        /**
+         * Creates the widget.
+         *
+         * @param title the window title.
+         */
+        CountingWidget(String title) {
+            this.title = title;
+        }
+
+        /**
+         * Counts the call.
+         */
+        @Override
+        public void update() {
+            updates++;
+        }
+
+        /**
+         * Opens a window with some text and counts the call.
+         */
+        @Override
+        public void render() {
+            renders++;
+
+            ImGui.setNextWindowSize(200, 100, ImGuiCond.FirstUseEver);
+            ImGui.begin(title);
+            ImGui.text(title);
+            ImGui.end();
+        }
+    }
+}
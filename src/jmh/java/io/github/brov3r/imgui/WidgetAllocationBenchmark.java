@@ -0,0 +1,165 @@
+package io.github.brov3r.imgui;
+
+import imgui.ImGui;
+import imgui.ImGuiIO;
+import imgui.flag.ImGuiCond;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation regression check for the base widget machinery: the manager's widget loop,
+ * {@link ImGuiWidget#captureMouseFocus()} and {@link ImGuiWidget#isHover()}.
+ * The widgets only open an empty window, so any allocation comes from the machinery itself.
+ * Every measurement iteration fails if the benchmark thread allocated more than the harness overhead during the whole
+ * iteration, so even a small allocation every few frames is caught.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class WidgetAllocationBenchmark {
+    /**
+     * Number of widgets in the frame.
+     */
+    private static final int WIDGET_COUNT = 20;
+
+    /**
+     * Bytes the JMH harness may allocate on the benchmark thread during an iteration, independent of the number of frames.
+     */
+    private static final long HARNESS_ALLOWANCE = 4 * 1024;
+
+    /**
+     * Thread bean used to read the bytes allocated by the benchmark thread.
+     */
+    private final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * The ImGuiIO of the headless context.
+     */
+    private ImGuiIO io;
+
+    /**
+     * The widgets in render order.
+     */
+    private ImGuiWidget[] widgets;
+
+    /**
+     * Bytes allocated by the benchmark thread at the start of the iteration.
+     */
+    private long allocatedAtStart;
+
+    /**
+     * Number of frames built in the current iteration.
+     */
+    private long frames;
+
+    /**
+     * Creates the headless context and the widgets.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        io = ImGuiManager.createHeadlessContext(1920, 1080);
+
+        widgets = new ImGuiWidget[WIDGET_COUNT];
+        for (int i = 0; i < WIDGET_COUNT; i++) {
+            widgets[i] = new EmptyWindowWidget("Widget " + i);
+        }
+    }
+
+    /**
+     * Destroys the headless context.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ImGuiManager.destroyHeadlessContext();
+    }
+
+    /**
+     * Remembers the allocated bytes at the start of the iteration.
+     */
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        frames = 0;
+        allocatedAtStart = threadBean.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Fails the measurement iteration if the benchmark thread allocated more than {@value #HARNESS_ALLOWANCE} bytes.
+     *
+     * @param params the parameters of the finished iteration.
+     */
+    @TearDown(Level.Iteration)
+    public void verifyIteration(IterationParams params) {
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - allocatedAtStart;
+        if (params.getType() != IterationType.MEASUREMENT || frames == 0) return;
+
+        if (allocated > HARNESS_ALLOWANCE) {
+            throw new IllegalStateException(String.format("Widget machinery allocated %d bytes in %d frames, expected 0 (harness allowance %d bytes)",
+                    allocated, frames, HARNESS_ALLOWANCE));
+        }
+    }
+
+    /**
+     * Builds one frame with the widgets.
+     *
+     * @return {@code true} if any widget is hovered, so the frame is not optimized away
+     */
+    @Benchmark
+    public boolean frame() {
+        io.setDeltaTime(1f / 144f);
+
+        ImGui.newFrame();
+        ImGuiManager.buildFrame(widgets, System.nanoTime());
+        ImGui.render();
+
+        frames++;
+        return widgets[0].isHover();
+    }
+
+    /**
+     * Widget that opens an empty window and captures the mouse focus.
+     */
+    private static class EmptyWindowWidget extends ImGuiWidget {
+        /**
+         * Window title, prepared once.
+         */
+        private final String title;
+
+        /**
+         * Creates the widget.
+         *
+         * @param title the window title.
+         */
+        EmptyWindowWidget(String title) {
+            this.title = title;
+        }
+
+        /**
+         * Opens an empty window and captures the mouse focus.
+         */
+        @Override
+        public void render() {
+            ImGui.setNextWindowSize(200, 100, ImGuiCond.FirstUseEver);
+            ImGui.begin(title);
+            captureMouseFocus();
+            ImGui.end();
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package io.github.brov3r.imgui;
+
+import imgui.ImFont;
+import imgui.ImFontAtlas;
+import imgui.ImFontAtlasCustomRect;
+import imgui.ImFontConfig;
+import imgui.ImFontGlyph;
+import imgui.type.ImInt;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Rasterized glyphs of a font atlas: glyph metrics, texture coordinates and alpha bitmaps of every font.
+ * Captured once after the atlas is built, it can be written to disk and restored into an atlas without rasterizing the TTF files again.
+ * <p>
+ * The glyph tables of the binding can not be filled directly, so a restore adds each TTF again with only its invisible glyphs (spaces),
+ * packs the cached bitmaps as custom rectangles and registers a glyph for each of them after the build.
+ * A restored atlas must not be built again, since a build would drop the registered glyphs.
+ */
+class BakedAtlas {
+    /**
+     * Marks a baked atlas file.
+     */
+    private static final int MAGIC = 0x49474641;
+
+    /**
+     * Version of the binary format, part of the cache key.
+     */
+    static final int FORMAT_VERSION = 1;
+
+    /**
+     * Codepoints provided by the built-in ImGui font, which every atlas starts with.
+     */
+    private static final int DEFAULT_FONT_FIRST = 0x20, DEFAULT_FONT_LAST = 0xFF;
+
+    /**
+     * Glyph ranges of a shell for a font that has no invisible glyphs.
+     */
+    private static final short[] EMPTY_SHELL = {0x20, 0x20, 0};
+
+    /**
+     * Width of the atlas texture.
+     */
+    private final int texWidth;
+
+    /**
+     * Glyph ranges of the invisible glyphs of each font spec, or {@code null} if the spec is skipped on restore.
+     */
+    private final short[][] shellRanges;
+
+    /**
+     * Visible glyphs of each font in the atlas. Index 0 is the built-in ImGui font.
+     */
+    private final Glyph[][] glyphs;
+
+    /**
+     * Creates a baked atlas.
+     *
+     * @param texWidth    the width of the atlas texture.
+     * @param shellRanges the glyph ranges of the invisible glyphs of each font spec.
+     * @param glyphs      the visible glyphs of each font.
+     */
+    private BakedAtlas(int texWidth, short[][] shellRanges, Glyph[][] glyphs) {
+        this.texWidth = texWidth;
+        this.shellRanges = shellRanges;
+        this.glyphs = glyphs;
+    }
+
+    /**
+     * Adds the built-in font and the font specs to an empty atlas and rasterizes them.
+     *
+     * @param atlas the empty atlas.
+     * @param specs the fonts to add.
+     * @return the built-in font followed by the font of each spec
+     */
+    static List<ImFont> build(ImFontAtlas atlas, List<FontSpec> specs) {
+        List<ImFont> fonts = new ArrayList<>(specs.size() + 1);
+
+        fonts.add(atlas.addFontDefault());
+        for (FontSpec spec : specs) {
+            fonts.add(spec.addTo(atlas));
+        }
+        atlas.build();
+
+        return fonts;
+    }
+
+    /**
+     * Captures the glyphs of an atlas built by {@link #build(ImFontAtlas, List)}.
+     *
+     * @param atlas the built atlas.
+     * @param specs the fonts the atlas was built from.
+     * @param fonts the built-in font followed by the font of each spec.
+     * @return the baked atlas
+     */
+    static BakedAtlas capture(ImFontAtlas atlas, List<FontSpec> specs, List<ImFont> fonts) {
+        ImInt width = new ImInt(), height = new ImInt();
+        ByteBuffer pixels = atlas.getTexDataAsRGBA32(width, height);
+        int texWidth = width.get(), texHeight = height.get();
+
+        int[] destinations = getDestinations(specs);
+        int fontCount = destinations.length == 0 ? 1 : destinations[destinations.length - 1] + 1;
+
+        ImFont[] dstFonts = new ImFont[fontCount];
+        BitSet[] codepoints = new BitSet[fontCount];
+        for (int i = 0; i < fontCount; i++) {
+            codepoints[i] = new BitSet();
+        }
+        for (int i = 0; i < specs.size(); i++) {
+            dstFonts[destinations[i]] = fonts.get(i + 1);
+            addRanges(codepoints[destinations[i]], specs.get(i).getGlyphRanges(atlas));
+        }
+        codepoints[0].clear(DEFAULT_FONT_FIRST, DEFAULT_FONT_LAST + 1);
+
+        Glyph[][] glyphs = new Glyph[fontCount][];
+        BitSet[] invisible = new BitSet[fontCount];
+
+        for (int f = 0; f < fontCount; f++) {
+            List<Glyph> visible = new ArrayList<>();
+            invisible[f] = new BitSet();
+
+            ImFont font = dstFonts[f];
+            BitSet set = codepoints[f];
+            for (int cp = set.nextSetBit(0); font != null && cp >= 0; cp = set.nextSetBit(cp + 1)) {
+                ImFontGlyph glyph = font.findGlyph(cp);
+                if (glyph == null || glyph.getCodepoint() != cp) continue;
+
+                int x = Math.round(glyph.getU0() * texWidth), y = Math.round(glyph.getV0() * texHeight);
+                int w = Math.round(glyph.getU1() * texWidth) - x, h = Math.round(glyph.getV1() * texHeight) - y;
+
+                if (w <= 0 || h <= 0 || glyph.getX1() <= glyph.getX0() || glyph.getY1() <= glyph.getY0()) {
+                    invisible[f].set(cp);
+                    continue;
+                }
+
+                byte[] alpha = new byte[w * h];
+                for (int row = 0; row < h; row++) {
+                    for (int col = 0; col < w; col++) {
+                        alpha[row * w + col] = pixels.get(((y + row) * texWidth + x + col) * 4 + 3);
+                    }
+                }
+
+                visible.add(new Glyph(cp, glyph.getX0(), glyph.getY0(), glyph.getX1(), glyph.getY1(), glyph.getAdvanceX(), w, h, alpha));
+            }
+
+            glyphs[f] = visible.toArray(new Glyph[0]);
+        }
+
+        short[][] shellRanges = new short[specs.size()][];
+        for (int i = 0; i < specs.size(); i++) {
+            BitSet shell = new BitSet();
+            addRanges(shell, specs.get(i).getGlyphRanges(atlas));
+            shell.and(invisible[destinations[i]]);
+
+            if (!shell.isEmpty()) {
+                shellRanges[i] = toRanges(shell);
+            } else if (!specs.get(i).mergeMode) {
+                shellRanges[i] = EMPTY_SHELL;
+            }
+        }
+
+        return new BakedAtlas(texWidth, shellRanges, glyphs);
+    }
+
+    /**
+     * Restores the glyphs into an empty atlas.
+     *
+     * @param atlas the empty atlas.
+     * @param specs the fonts the atlas was baked from.
+     * @return the built-in font followed by the font of each spec
+     */
+    List<ImFont> restore(ImFontAtlas atlas, List<FontSpec> specs) {
+        int[] destinations = getDestinations(specs);
+        ImFont[] dstFonts = new ImFont[glyphs.length];
+        List<ImFont> fonts = new ArrayList<>(specs.size() + 1);
+
+        atlas.setTexDesiredWidth(texWidth);
+        dstFonts[0] = atlas.addFontDefault();
+        fonts.add(dstFonts[0]);
+
+        for (int i = 0; i < specs.size(); i++) {
+            if (shellRanges[i] != null) {
+                dstFonts[destinations[i]] = specs.get(i).addTo(atlas, shellRanges[i]);
+            }
+            fonts.add(dstFonts[destinations[i]]);
+        }
+
+        int[][] rects = new int[glyphs.length][];
+        for (int f = 0; f < glyphs.length; f++) {
+            rects[f] = new int[glyphs[f].length];
+            for (int g = 0; g < glyphs[f].length; g++) {
+                rects[f][g] = atlas.addCustomRectRegular(glyphs[f][g].width, glyphs[f][g].height);
+            }
+        }
+
+        atlas.build();
+
+        ImInt width = new ImInt(), height = new ImInt();
+        ByteBuffer pixels = atlas.getTexDataAsRGBA32(width, height);
+        float texWidth = width.get(), texHeight = height.get();
+
+        ImFontConfig config = new ImFontConfig();
+        try {
+            for (int f = 0; f < glyphs.length; f++) {
+                if (dstFonts[f] == null || glyphs[f].length == 0) continue;
+
+                for (int g = 0; g < glyphs[f].length; g++) {
+                    Glyph glyph = glyphs[f][g];
+                    ImFontAtlasCustomRect rect = atlas.getCustomRectByIndex(rects[f][g]);
+                    int x = rect.getX(), y = rect.getY();
+
+                    for (int row = 0; row < glyph.height; row++) {
+                        for (int col = 0; col < glyph.width; col++) {
+                            pixels.put(((y + row) * width.get() + x + col) * 4 + 3, glyph.alpha[row * glyph.width + col]);
+                        }
+                    }
+
+                    dstFonts[f].addGlyph(config, glyph.codepoint, glyph.x0, glyph.y0, glyph.x1, glyph.y1,
+                            x / texWidth, y / texHeight, (x + glyph.width) / texWidth, (y + glyph.height) / texHeight, glyph.advanceX);
+                }
+
+                dstFonts[f].buildLookupTable();
+            }
+        } finally {
+            config.destroy();
+        }
+
+        return fonts;
+    }
+
+    /**
+     * Writes the baked atlas.
+     *
+     * @param out the stream to write to.
+     * @throws IOException if writing fails.
+     */
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(texWidth);
+
+        out.writeInt(shellRanges.length);
+        for (short[] ranges : shellRanges) {
+            out.writeInt(ranges == null ? -1 : ranges.length);
+            if (ranges == null) continue;
+
+            for (short value : ranges) {
+                out.writeShort(value);
+            }
+        }
+
+        out.writeInt(glyphs.length);
+        for (Glyph[] fontGlyphs : glyphs) {
+            out.writeInt(fontGlyphs.length);
+            for (Glyph glyph : fontGlyphs) {
+                out.writeInt(glyph.codepoint);
+                out.writeFloat(glyph.x0);
+                out.writeFloat(glyph.y0);
+                out.writeFloat(glyph.x1);
+                out.writeFloat(glyph.y1);
+                out.writeFloat(glyph.advanceX);
+                out.writeShort(glyph.width);
+                out.writeShort(glyph.height);
+                out.write(glyph.alpha);
+            }
+        }
+    }
+
+    /**
+     * Reads a baked atlas written by {@link #write(DataOutputStream)}.
+     *
+     * @param in        the stream to read from.
+     * @param specCount the number of font specs the atlas is expected to hold.
+     * @return the baked atlas
+     * @throws IOException if reading fails or the data is not a baked atlas of the expected shape.
+     */
+    static BakedAtlas read(DataInputStream in, int specCount) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Not a baked font atlas");
+        }
+
+        int texWidth = in.readInt();
+
+        if (in.readInt() != specCount) {
+            throw new IOException("Font count mismatch");
+        }
+
+        short[][] shellRanges = new short[specCount][];
+        for (int i = 0; i < specCount; i++) {
+            int length = in.readInt();
+            if (length < 0) continue;
+
+            shellRanges[i] = new short[length];
+            for (int j = 0; j < length; j++) {
+                shellRanges[i][j] = in.readShort();
+            }
+        }
+
+        Glyph[][] glyphs = new Glyph[in.readInt()][];
+        for (int f = 0; f < glyphs.length; f++) {
+            glyphs[f] = new Glyph[in.readInt()];
+            for (int g = 0; g < glyphs[f].length; g++) {
+                int codepoint = in.readInt();
+                float x0 = in.readFloat(), y0 = in.readFloat(), x1 = in.readFloat(), y1 = in.readFloat();
+                float advanceX = in.readFloat();
+                int width = in.readUnsignedShort(), height = in.readUnsignedShort();
+
+                byte[] alpha = new byte[width * height];
+                in.readFully(alpha);
+
+                glyphs[f][g] = new Glyph(codepoint, x0, y0, x1, y1, advanceX, width, height, alpha);
+            }
+        }
+
+        return new BakedAtlas(texWidth, shellRanges, glyphs);
+    }
+
+    /**
+     * Getting the number of visible glyphs in the atlas
+     *
+     * @return number of glyphs
+     */
+    int getGlyphCount() {
+        int count = 0;
+        for (Glyph[] fontGlyphs : glyphs) {
+            count += fontGlyphs.length;
+        }
+        return count;
+    }
+
+    /**
+     * Getting the index of the font each spec adds its glyphs to
+     *
+     * @param specs the font specs in atlas order.
+     * @return the font index of each spec, where index 0 is the built-in ImGui font
+     */
+    static int[] getDestinations(List<FontSpec> specs) {
+        int[] destinations = new int[specs.size()];
+        int font = 0;
+
+        for (int i = 0; i < specs.size(); i++) {
+            if (!specs.get(i).mergeMode) font++;
+            destinations[i] = font;
+        }
+
+        return destinations;
+    }
+
+    /**
+     * Adds the codepoints of zero-terminated glyph ranges to a set.
+     *
+     * @param set    the set to add to.
+     * @param ranges the glyph ranges as pairs of first and last codepoint.
+     */
+    static void addRanges(BitSet set, short[] ranges) {
+        for (int i = 0; i + 1 < ranges.length && ranges[i] != 0; i += 2) {
+            set.set(ranges[i] & 0xFFFF, (ranges[i + 1] & 0xFFFF) + 1);
+        }
+    }
+
+    /**
+     * Converts a set of codepoints to zero-terminated glyph ranges.
+     *
+     * @param set the codepoints.
+     * @return the glyph ranges as pairs of first and last codepoint
+     */
+    static short[] toRanges(BitSet set) {
+        List<Short> ranges = new ArrayList<>();
+
+        for (int first = set.nextSetBit(0); first >= 0; first = set.nextSetBit(first)) {
+            int end = set.nextClearBit(first);
+            ranges.add((short) first);
+            ranges.add((short) (end - 1));
+            first = end;
+        }
+
+        short[] result = new short[ranges.size() + 1];
+        for (int i = 0; i < ranges.size(); i++) {
+            result[i] = ranges.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * A visible glyph with its metrics and alpha bitmap.
+     */
+    private static class Glyph {
+        final int codepoint;
+        final float x0, y0, x1, y1;
+        final float advanceX;
+        final int width, height;
+        final byte[] alpha;
+
+        Glyph(int codepoint, float x0, float y0, float x1, float y1, float advanceX, int width, int height, byte[] alpha) {
+            this.codepoint = codepoint;
+            this.x0 = x0;
+            this.y0 = y0;
+            this.x1 = x1;
+            this.y1 = y1;
+            this.advanceX = advanceX;
+            this.width = width;
+            this.height = height;
+            this.alpha = alpha;
+        }
+    }
+}
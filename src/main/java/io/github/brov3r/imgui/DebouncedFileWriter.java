@@ -0,0 +1,143 @@
+package io.github.brov3r.imgui;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Writes a file on a background thread once its content has not changed for a delay.
+ * Content submitted in the meantime replaces the pending content, so a burst of changes results in one write.
+ * The file is written under a temporary name and moved into place, so a partial file is never read.
+ */
+class DebouncedFileWriter {
+    /**
+     * Writes the files of all writers, so that disk I/O never runs on the render or game thread.
+     */
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ImGuiAPI-FileWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The file to write.
+     */
+    private final Path file;
+
+    /**
+     * The delay in milliseconds after the last change before the file is written.
+     */
+    private final long delayMillis;
+
+    /**
+     * Produces the content waiting to be written, or {@code null} if the file is up to date.
+     */
+    private Supplier<byte[]> pending;
+
+    /**
+     * The scheduled write, or {@code null} if none is scheduled.
+     */
+    private ScheduledFuture<?> scheduled;
+
+    /**
+     * Serializes the writes of a flush and a scheduled write, so an older content never replaces a newer one.
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * Creates a writer for a file.
+     *
+     * @param file        the file to write.
+     * @param delayMillis the delay in milliseconds after the last change before the file is written.
+     */
+    DebouncedFileWriter(Path file, long delayMillis) {
+        this.file = file;
+        this.delayMillis = delayMillis;
+    }
+
+    /**
+     * Submits new content of the file. The file is written when no other content is submitted within the delay.
+     * Can be called from any thread; it never blocks on disk I/O.
+     *
+     * @param data the new content.
+     */
+    void write(byte[] data) {
+        write(() -> data);
+    }
+
+    /**
+     * Submits a change of the file whose content is produced on the writer thread when the file is written,
+     * so that a burst of changes is also serialized only once.
+     * Can be called from any thread; it never blocks on disk I/O.
+     *
+     * @param content produces the new content, or {@code null} to skip the write.
+     */
+    synchronized void write(Supplier<byte[]> content) {
+        pending = content;
+
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+        scheduled = executor.schedule(this::writePending, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes the pending content immediately on the calling thread, e.g. when the game exits.
+     */
+    void flush() {
+        synchronized (this) {
+            if (scheduled != null) {
+                scheduled.cancel(false);
+                scheduled = null;
+            }
+        }
+        writePending();
+    }
+
+    /**
+     * Getting the written file
+     *
+     * @return path to the file
+     */
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Takes the pending content and writes it to the file.
+     */
+    private void writePending() {
+        synchronized (writeLock) {
+            Supplier<byte[]> content;
+            synchronized (this) {
+                content = pending;
+                pending = null;
+            }
+            if (content == null) return;
+
+            try {
+                byte[] data = content.get();
+                if (data == null) return;
+
+                Path folder = file.toAbsolutePath().getParent();
+                Files.createDirectories(folder);
+
+                Path temp = Files.createTempFile(folder, file.getFileName().toString(), ".tmp");
+                try {
+                    Files.write(temp, data);
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (IOException e) {
+                System.out.printf("[!] Failed to write file '%s': %s%n", file.getFileName(), e.getMessage());
+            }
+        }
+    }
+}
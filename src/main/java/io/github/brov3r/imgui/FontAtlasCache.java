@@ -0,0 +1,192 @@
+package io.github.brov3r.imgui;
+
+import imgui.ImFont;
+import imgui.ImFontAtlas;
+import imgui.ImGui;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Disk cache of baked font atlases.
+ * An atlas is stored under a key hashed from the font data, sizes, configurations and glyph ranges,
+ * so any change of the fonts leads to a new cache entry; only the most recent entries are kept.
+ */
+class FontAtlasCache {
+    /**
+     * Prefix and suffix of the cache file names.
+     */
+    private static final String FILE_PREFIX = "atlas-", FILE_SUFFIX = ".bin";
+
+    /**
+     * Number of most recently written atlases kept in the cache.
+     * Several entries are kept, since the baked glyph scripts can differ between sessions.
+     */
+    private static final int MAX_ENTRIES = 4;
+
+    /**
+     * Builds an empty atlas from the font specs, restoring it from the cache when possible.
+     * On a cache miss, the atlas is rasterized and written to the cache in the background.
+     *
+     * @param atlas    the empty atlas.
+     * @param specs    the fonts to add, in atlas order.
+     * @param folder   the cache folder, or {@code null} to always rasterize.
+     * @param executor writes the cache entry, the same executor that bakes atlases, so cache writes never overlap.
+     * @return the built-in font followed by the font of each spec
+     */
+    static List<ImFont> build(ImFontAtlas atlas, List<FontSpec> specs, Path folder, Executor executor) {
+        long start = System.nanoTime();
+
+        if (folder == null) {
+            return BakedAtlas.build(atlas, specs);
+        }
+
+        String key = computeKey(specs);
+        Path file = folder.resolve(FILE_PREFIX + key + FILE_SUFFIX);
+
+        BakedAtlas cached = read(file, specs.size());
+        if (cached != null) {
+            file.toFile().setLastModified(System.currentTimeMillis());
+
+            List<ImFont> fonts = cached.restore(atlas, specs);
+            System.out.printf("[#] ImGui - font atlas restored from cache (%d glyphs) in %d ms%n", cached.getGlyphCount(), (System.nanoTime() - start) / 1_000_000);
+            return fonts;
+        }
+
+        List<ImFont> fonts = BakedAtlas.build(atlas, specs);
+        BakedAtlas baked = BakedAtlas.capture(atlas, specs, fonts);
+        System.out.printf("[#] ImGui - font atlas rasterized (%d glyphs) in %d ms%n", baked.getGlyphCount(), (System.nanoTime() - start) / 1_000_000);
+
+        CompletableFuture.runAsync(() -> write(folder, file, baked), executor);
+
+        return fonts;
+    }
+
+    /**
+     * Bakes the font specs without touching the atlas of the ImGui context, reading the cache when possible.
+     * On a cache miss, the fonts are rasterized into a separate staging atlas and the result is written to the cache.
+     * Can be called from any thread.
+     *
+     * @param specs  the fonts to add, in atlas order.
+     * @param folder the cache folder, or {@code null} to always rasterize.
+     * @return the baked atlas, to be restored into the atlas of the context with {@link BakedAtlas#restore(ImFontAtlas, List)}
+     */
+    static BakedAtlas bake(List<FontSpec> specs, Path folder) {
+        long start = System.nanoTime();
+
+        String key = computeKey(specs);
+        Path file = folder != null ? folder.resolve(FILE_PREFIX + key + FILE_SUFFIX) : null;
+
+        if (file != null) {
+            BakedAtlas cached = read(file, specs.size());
+            if (cached != null) {
+                file.toFile().setLastModified(System.currentTimeMillis());
+                return cached;
+            }
+        }
+
+        ImFontAtlas staging = new ImFontAtlas();
+        BakedAtlas baked;
+        try {
+            baked = BakedAtlas.capture(staging, specs, BakedAtlas.build(staging, specs));
+        } finally {
+            staging.destroy();
+        }
+        System.out.printf("[#] ImGui - font atlas rasterized in background (%d glyphs) in %d ms%n", baked.getGlyphCount(), (System.nanoTime() - start) / 1_000_000);
+
+        if (file != null) {
+            write(folder, file, baked);
+        }
+
+        return baked;
+    }
+
+    /**
+     * Computes the cache key of a set of fonts.
+     *
+     * @param specs the fonts in atlas order.
+     * @return the hexadecimal SHA-256 hash of everything that affects the atlas
+     */
+    static String computeKey(List<FontSpec> specs) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((ImGui.getVersion() + "|" + BakedAtlas.FORMAT_VERSION).getBytes(StandardCharsets.UTF_8));
+
+            for (FontSpec spec : specs) {
+                spec.digest(digest);
+            }
+
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads a cached atlas.
+     *
+     * @param file      the cache file.
+     * @param specCount the number of font specs.
+     * @return the baked atlas, or {@code null} if there is no valid cache entry
+     */
+    private static BakedAtlas read(Path file, int specCount) {
+        if (!Files.isRegularFile(file)) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            return BakedAtlas.read(in, specCount);
+        } catch (IOException e) {
+            System.out.printf("[!] Failed to read font atlas cache '%s': %s%n", file.getFileName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes a baked atlas to the cache and removes the oldest cache entries.
+     * The file is written under a temporary name and moved into place, so a partial file is never read.
+     *
+     * @param folder the cache folder.
+     * @param file   the cache file.
+     * @param baked  the baked atlas.
+     */
+    private static void write(Path folder, Path file, BakedAtlas baked) {
+        try {
+            Files.createDirectories(folder);
+
+            Path temp = Files.createTempFile(folder, FILE_PREFIX, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp))))) {
+                baked.write(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            List<Path> entries = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+                stream.forEach(entries::add);
+            }
+
+            entries.sort(Comparator.comparingLong((Path entry) -> entry.toFile().lastModified()).reversed());
+            for (int i = MAX_ENTRIES; i < entries.size(); i++) {
+                Files.deleteIfExists(entries.get(i));
+            }
+        } catch (IOException e) {
+            System.out.printf("[!] Failed to write font atlas cache: %s%n", e.getMessage());
+        }
+    }
+}
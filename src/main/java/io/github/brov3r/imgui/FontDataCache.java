@@ -0,0 +1,187 @@
+package io.github.brov3r.imgui;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Shares the data of a font file between all fonts created from it, so a font registered at several sizes is read
+ * and held once. Buffers are reference counted by the fonts that are baked into the atlas and released with the last one.
+ */
+class FontDataCache {
+    /**
+     * Cached buffers by the key of their font source.
+     */
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Cached buffers by identity, to release them without their source.
+     */
+    private final Map<byte[], Entry> buffers = new IdentityHashMap<>();
+
+    /**
+     * Number of acquisitions served from the cache.
+     */
+    private long hits;
+
+    /**
+     * Number of acquisitions that had to read the font.
+     */
+    private long misses;
+
+    /**
+     * Number of bytes held by the cached buffers.
+     */
+    private long bytesHeld;
+
+    /**
+     * Acquires the data of a font, reading it if it is not cached or the source has been modified since.
+     * Each successful acquisition must be balanced by {@link #release(byte[])}.
+     *
+     * @param source the location of the font data.
+     * @param loader reads the font data on a cache miss.
+     * @return the shared font data
+     * @throws IOException if the font can not be read.
+     */
+    byte[] acquire(FontSource source, Loader loader) throws IOException {
+        String key = source.getKey();
+        long lastModified = source.getLastModified();
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.lastModified == lastModified) {
+                entry.references++;
+                hits++;
+                return entry.data;
+            }
+        }
+
+        byte[] data = loader.load();
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.lastModified == lastModified) {
+                // Another thread read the same font in the meantime
+                entry.references++;
+                hits++;
+                return entry.data;
+            }
+
+            if (entry != null) {
+                // The source has been modified, the old buffer stays alive until its fonts release it
+                entries.remove(key);
+            }
+
+            entry = new Entry(key, lastModified, data);
+            entries.put(key, entry);
+            buffers.put(data, entry);
+            bytesHeld += data.length;
+            misses++;
+            return data;
+        }
+    }
+
+    /**
+     * Releases font data acquired by {@link #acquire}. The buffer is dropped when it is no longer referenced.
+     * Data that was not acquired from the cache is ignored.
+     *
+     * @param data the font data.
+     */
+    synchronized void release(byte[] data) {
+        if (data == null) return;
+
+        Entry entry = buffers.get(data);
+        if (entry == null || --entry.references > 0) return;
+
+        buffers.remove(data);
+        entries.remove(entry.key, entry);
+        bytesHeld -= data.length;
+    }
+
+    /**
+     * Getting the number of acquisitions served from the cache
+     *
+     * @return number of hits
+     */
+    synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Getting the number of acquisitions that had to read the font
+     *
+     * @return number of misses
+     */
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Getting the number of bytes held by the cached buffers
+     *
+     * @return bytes held
+     */
+    synchronized long getBytesHeld() {
+        return bytesHeld;
+    }
+
+    /**
+     * Getting the number of cached buffers
+     *
+     * @return number of buffers
+     */
+    synchronized int getBufferCount() {
+        return buffers.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d hits, %d misses, %d KB held in %d buffers", hits, misses, bytesHeld / 1024, buffers.size());
+    }
+
+    /**
+     * Reads the font data on a cache miss.
+     */
+    @FunctionalInterface
+    interface Loader {
+        /**
+         * Reads the font data.
+         *
+         * @return the font data
+         * @throws IOException if the font can not be read.
+         */
+        byte[] load() throws IOException;
+    }
+
+    /**
+     * A cached buffer and the number of fonts that reference it.
+     */
+    private static class Entry {
+        /**
+         * The key of the font source.
+         */
+        final String key;
+
+        /**
+         * The modification time of the source when it was read.
+         */
+        final long lastModified;
+
+        /**
+         * The font data.
+         */
+        final byte[] data;
+
+        /**
+         * Number of fonts that reference the buffer.
+         */
+        int references = 1;
+
+        Entry(String key, long lastModified, byte[] data) {
+            this.key = key;
+            this.lastModified = lastModified;
+            this.data = data;
+        }
+    }
+}
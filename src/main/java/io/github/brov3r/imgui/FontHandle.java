@@ -0,0 +1,132 @@
+package io.github.brov3r.imgui;
+
+import imgui.ImFont;
+
+/**
+ * A handle to a registered font, resolved once and used every frame.
+ * The handle is backed by an index into the font array of the manager, so {@link #get()} costs an array read
+ * instead of a map lookup by name. It stays valid across atlas rebuilds and can be obtained before the font is created,
+ * in which case it resolves to the built-in font until the font is registered.
+ */
+public final class FontHandle {
+    /**
+     * The registry holding the font array.
+     */
+    private final FontRegistry registry;
+
+    /**
+     * Index of the font in the font array.
+     */
+    private final int index;
+
+    /**
+     * Name or family of the font, used for diagnostics.
+     */
+    private final String name;
+
+    /**
+     * Family and size the handle was obtained for, or {@code null} and 0 for handles obtained by name.
+     */
+    private final String family;
+    private final int size;
+
+    /**
+     * Indicates whether the missing font of the handle has been requested, so that it is requested only once.
+     * Reset when the font is registered or removed, or when a font family is registered.
+     */
+    private volatile boolean requested = false;
+
+    /**
+     * Creates a handle.
+     *
+     * @param registry the registry holding the font array.
+     * @param index    the index of the font in the font array.
+     * @param name     the name or family of the font.
+     * @param family   the family of the font, or {@code null} for handles obtained by name.
+     * @param size     the size of the font in pixels, or 0 for handles obtained by name.
+     */
+    FontHandle(FontRegistry registry, int index, String name, String family, int size) {
+        this.registry = registry;
+        this.index = index;
+        this.name = name;
+        this.family = family;
+        this.size = size;
+    }
+
+    /**
+     * Getting the font to pass to {@code ImGui.pushFont}
+     * A handle of a font family requests its size to be added to the atlas the first time it is used.
+     *
+     * @return the registered font, the built-in font if the font is not registered yet, or {@code null} before ImGui is initialized
+     */
+    public ImFont get() {
+        ImFont font = registry.get(index);
+        if (font == null) {
+            if (!requested) {
+                requested = true;
+                registry.onMissing(this);
+            }
+            return registry.getFallback();
+        }
+
+        registry.touch(index);
+        return font;
+    }
+
+    /**
+     * Checks if the font of the handle is registered.
+     *
+     * @return {@code true} if the handle resolves to its own font, {@code false} if it falls back to the built-in font.
+     */
+    public boolean isLoaded() {
+        return registry.get(index) != null;
+    }
+
+    /**
+     * Getting the name or family the handle was obtained for
+     *
+     * @return name of the font
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Getting the family the handle was obtained for
+     *
+     * @return family of the font, or {@code null} if the handle was obtained by name
+     */
+    public String getFamily() {
+        return family;
+    }
+
+    /**
+     * Getting the size the handle was obtained for
+     *
+     * @return size of the font in pixels, or 0 if the handle was obtained by name
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Getting the index of the font in the font array
+     *
+     * @return index of the font
+     */
+    int getIndex() {
+        return index;
+    }
+
+    /**
+     * Allows the missing font of the handle to be requested again on the next use.
+     */
+    void resetRequest() {
+        requested = false;
+    }
+
+    @Override
+    public String toString() {
+        return "FontHandle[" + name + "]";
+    }
+}
@@ -0,0 +1,244 @@
+package io.github.brov3r.imgui;
+
+import imgui.ImFont;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Holds the registered fonts in a plain array and the handles pointing into it, by name and by family and size.
+ * The array is replaced on every change, so the render thread reads it without locking.
+ */
+class FontRegistry {
+    /**
+     * Fonts by handle index. Entries are {@code null} for handles whose font is not registered yet.
+     */
+    private volatile ImFont[] fonts = new ImFont[0];
+
+    /**
+     * Frame in which each font was last used through its handle.
+     */
+    private volatile int[] lastUsed = new int[0];
+
+    /**
+     * The current frame number, advanced by the render thread.
+     */
+    private int frame;
+
+    /**
+     * The built-in font, returned by handles whose font is not registered yet.
+     */
+    private volatile ImFont fallback;
+
+    /**
+     * Handles by font name.
+     */
+    private final Map<String, FontHandle> handles = new HashMap<>();
+
+    /**
+     * Handles by family and size.
+     */
+    private final Map<String, FontHandle> families = new HashMap<>();
+
+    /**
+     * Getting the font at an index
+     *
+     * @param index the handle index.
+     * @return the font, or {@code null} if it is not registered yet
+     */
+    ImFont get(int index) {
+        return fonts[index];
+    }
+
+    /**
+     * Marks a font as used in the current frame.
+     *
+     * @param index the handle index.
+     */
+    void touch(int index) {
+        int[] used = lastUsed;
+        if (index < used.length) used[index] = frame;
+    }
+
+    /**
+     * Getting the frame in which a font was last used
+     *
+     * @param index the handle index.
+     * @return the frame number
+     */
+    int getLastUsed(int index) {
+        int[] used = lastUsed;
+        return index < used.length ? used[index] : 0;
+    }
+
+    /**
+     * Advances the frame number. Called on the render thread once per frame.
+     */
+    void nextFrame() {
+        frame++;
+    }
+
+    /**
+     * Getting the current frame number
+     *
+     * @return the frame number
+     */
+    int getFrame() {
+        return frame;
+    }
+
+    /**
+     * Called once when a handle is used whose font is not registered, until the request is reset.
+     * Requests the size of a font family to be added to the atlas.
+     *
+     * @param handle the handle.
+     */
+    void onMissing(FontHandle handle) {
+        if (handle.getFamily() != null) {
+            ImGuiFont.requestFontSize(handle.getFamily(), handle.getSize());
+        }
+    }
+
+    /**
+     * Getting the built-in font
+     *
+     * @return the built-in font, or {@code null} before the atlas is built
+     */
+    ImFont getFallback() {
+        return fallback;
+    }
+
+    /**
+     * Sets the built-in font of the current atlas.
+     *
+     * @param font the built-in font.
+     */
+    void setFallback(ImFont font) {
+        fallback = font;
+    }
+
+    /**
+     * Registers a font and points the handles of its name and of its family and size to it.
+     *
+     * @param fontName the name of the font.
+     * @param family   the family of the font, or {@code null} if it has none.
+     * @param size     the size of the font in pixels.
+     * @param font     the font.
+     */
+    synchronized void register(String fontName, String family, int size, ImFont font) {
+        FontHandle handle = getHandle(fontName);
+        set(handle.getIndex(), font);
+        handle.resetRequest();
+
+        if (family != null) {
+            FontHandle familyHandle = getHandle(family, size);
+            set(familyHandle.getIndex(), font);
+            familyHandle.resetRequest();
+        }
+    }
+
+    /**
+     * Removes a font, so that the handles of its name and of its family and size resolve to the built-in font again.
+     *
+     * @param fontName the name of the font.
+     * @param family   the family of the font, or {@code null} if it has none.
+     * @param size     the size of the font in pixels.
+     */
+    synchronized void unregister(String fontName, String family, int size) {
+        FontHandle handle = handles.get(fontName);
+        if (handle != null) {
+            set(handle.getIndex(), null);
+            handle.resetRequest();
+        }
+
+        if (family != null) {
+            FontHandle familyHandle = families.get(getFamilyKey(family, size));
+            if (familyHandle != null) {
+                set(familyHandle.getIndex(), null);
+                familyHandle.resetRequest();
+            }
+        }
+    }
+
+    /**
+     * Allows the missing fonts of all handles to be requested again, e.g. after a font family has been registered.
+     */
+    synchronized void resetRequests() {
+        handles.values().forEach(FontHandle::resetRequest);
+        families.values().forEach(FontHandle::resetRequest);
+    }
+
+    /**
+     * Getting the handle of a font name, reserving a new index if the name is unknown
+     *
+     * @param fontName the name of the font.
+     * @return the handle
+     */
+    synchronized FontHandle getHandle(String fontName) {
+        return handles.computeIfAbsent(fontName, name -> reserve(name, null, 0));
+    }
+
+    /**
+     * Getting the handle of a font family and size, reserving a new index if no such font is registered
+     *
+     * @param family the family of the font, case-insensitive.
+     * @param size   the size of the font in pixels.
+     * @return the handle
+     */
+    synchronized FontHandle getHandle(String family, int size) {
+        return families.computeIfAbsent(getFamilyKey(family, size), key -> reserve(family + " " + size + "px", family, size));
+    }
+
+    /**
+     * Checks if a font of a family and size has been registered.
+     *
+     * @param family the family of the font, case-insensitive.
+     * @param size   the size of the font in pixels.
+     * @return {@code true} if such a font is registered, {@code false} otherwise.
+     */
+    synchronized boolean hasFont(String family, int size) {
+        FontHandle handle = families.get(getFamilyKey(family, size));
+        return handle != null && handle.isLoaded();
+    }
+
+    /**
+     * Reserves a new index in the font array.
+     *
+     * @param name   the name or family of the font.
+     * @param family the family of the font, or {@code null} for handles obtained by name.
+     * @param size   the size of the font in pixels, or 0 for handles obtained by name.
+     * @return the handle of the new index
+     */
+    private FontHandle reserve(String name, String family, int size) {
+        fonts = Arrays.copyOf(fonts, fonts.length + 1);
+        lastUsed = Arrays.copyOf(lastUsed, fonts.length);
+        return new FontHandle(this, fonts.length - 1, name, family, size);
+    }
+
+    /**
+     * Sets the font at an index, publishing a new array.
+     *
+     * @param index the handle index.
+     * @param font  the font.
+     */
+    private void set(int index, ImFont font) {
+        if (fonts[index] == font) return;
+
+        ImFont[] copy = fonts.clone();
+        copy[index] = font;
+        fonts = copy;
+    }
+
+    /**
+     * Builds the key of a family and size.
+     *
+     * @param family the family of the font.
+     * @param size   the size of the font in pixels.
+     * @return the key
+     */
+    private static String getFamilyKey(String family, int size) {
+        return family.toLowerCase(Locale.ROOT) + '/' + size;
+    }
+}
@@ -0,0 +1,228 @@
+package io.github.brov3r.imgui;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * A location of font data: an entry of a JAR file, a file in a directory or a classpath resource.
+ * Fonts are read directly into an array of the exact size, without temporary files.
+ */
+public abstract class FontSource {
+    /**
+     * Identifies the location of the font data.
+     */
+    private final String key;
+
+    /**
+     * Creates a font source.
+     *
+     * @param key the identifier of the location.
+     */
+    private FontSource(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Creates a source for a font file inside a JAR file.
+     *
+     * @param jarFilePath      the path to the JAR file.
+     * @param internalFilePath the path to the font file inside the JAR.
+     * @return the font source
+     */
+    public static FontSource jar(String jarFilePath, String internalFilePath) {
+        return new JarSource(Path.of(jarFilePath), internalFilePath);
+    }
+
+    /**
+     * Creates a source for a font file on the filesystem.
+     *
+     * @param fontPath the path to the font file.
+     * @return the font source
+     */
+    public static FontSource file(Path fontPath) {
+        return new FileSource(fontPath);
+    }
+
+    /**
+     * Creates a source for a font file in a directory.
+     *
+     * @param directory the directory.
+     * @param fileName  the name of the font file in the directory.
+     * @return the font source
+     */
+    public static FontSource directory(Path directory, String fileName) {
+        return new FileSource(directory.resolve(fileName));
+    }
+
+    /**
+     * Creates a source for a font resource on the classpath, such as a font bundled in a plugin JAR.
+     *
+     * @param classLoader  the class loader to load the resource with.
+     * @param resourceName the name of the resource.
+     * @return the font source
+     */
+    public static FontSource classpath(ClassLoader classLoader, String resourceName) {
+        return new ClasspathSource(classLoader, resourceName);
+    }
+
+    /**
+     * Getting the identifier of the location
+     *
+     * @return key of the font source
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Reads the font data.
+     *
+     * @return the font data
+     * @throws IOException if the font can not be read.
+     */
+    public byte[] read() throws IOException {
+        try (JarFileCache jarFiles = new JarFileCache()) {
+            return read(jarFiles);
+        }
+    }
+
+    /**
+     * Reads the font data, reusing archives that are already open.
+     *
+     * @param jarFiles the open archives.
+     * @return the font data
+     * @throws IOException if the font can not be read.
+     */
+    abstract byte[] read(JarFileCache jarFiles) throws IOException;
+
+    /**
+     * Getting the modification time of the location
+     *
+     * @return the modification time in milliseconds, or 0 if unknown
+     */
+    long getLastModified() {
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+
+    /**
+     * Reads a stream of known size into an array of that size.
+     *
+     * @param in   the stream.
+     * @param size the size of the data, or -1 if unknown.
+     * @return the data
+     * @throws IOException if reading fails or the stream ends early.
+     */
+    private static byte[] readFully(InputStream in, long size) throws IOException {
+        if (size < 0) return in.readAllBytes();
+        if (size > Integer.MAX_VALUE) throw new IOException("Font data too large: " + size);
+
+        byte[] data = new byte[(int) size];
+        if (in.readNBytes(data, 0, data.length) != data.length) {
+            throw new IOException("Unexpected end of font data");
+        }
+        return data;
+    }
+
+    /**
+     * A font file inside a JAR file.
+     */
+    private static class JarSource extends FontSource {
+        /**
+         * The JAR file.
+         */
+        private final Path jarPath;
+        /**
+         * The path to the font file inside the JAR.
+         */
+        private final String entryName;
+
+        JarSource(Path jarPath, String entryName) {
+            super("jar:" + jarPath.toAbsolutePath().normalize() + "!/" + entryName);
+            this.jarPath = jarPath;
+            this.entryName = entryName;
+        }
+
+        @Override
+        byte[] read(JarFileCache jarFiles) throws IOException {
+            JarFile jarFile = jarFiles.get(jarPath);
+            JarEntry entry = jarFile.getJarEntry(entryName);
+            if (entry == null) {
+                throw new FileNotFoundException(entryName);
+            }
+
+            try (InputStream in = jarFile.getInputStream(entry)) {
+                return readFully(in, entry.getSize());
+            }
+        }
+
+        @Override
+        long getLastModified() {
+            return jarPath.toFile().lastModified();
+        }
+    }
+
+    /**
+     * A font file on the filesystem.
+     */
+    private static class FileSource extends FontSource {
+        /**
+         * The font file.
+         */
+        private final Path path;
+
+        FileSource(Path path) {
+            super("file:" + path.toAbsolutePath().normalize());
+            this.path = path;
+        }
+
+        @Override
+        byte[] read(JarFileCache jarFiles) throws IOException {
+            return Files.readAllBytes(path);
+        }
+
+        @Override
+        long getLastModified() {
+            return path.toFile().lastModified();
+        }
+    }
+
+    /**
+     * A font resource on the classpath.
+     */
+    private static class ClasspathSource extends FontSource {
+        /**
+         * The class loader to load the resource with.
+         */
+        private final ClassLoader classLoader;
+        /**
+         * The name of the resource.
+         */
+        private final String resourceName;
+
+        ClasspathSource(ClassLoader classLoader, String resourceName) {
+            super("classpath:" + resourceName);
+            this.classLoader = classLoader;
+            this.resourceName = resourceName;
+        }
+
+        @Override
+        byte[] read(JarFileCache jarFiles) throws IOException {
+            try (InputStream in = classLoader.getResourceAsStream(resourceName)) {
+                if (in == null) {
+                    throw new FileNotFoundException(resourceName);
+                }
+                return in.readAllBytes();
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package io.github.brov3r.imgui;
+
+import imgui.ImFont;
+import imgui.ImFontAtlas;
+import imgui.ImFontConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Description of a font added to the font atlas: font data, size, configuration and glyph ranges.
+ * Every configuration value read by ImGui when the font is added and rasterized is copied, so the caller may destroy
+ * its {@link ImFontConfig} right after creating the spec.
+ */
+class FontSpec {
+    /**
+     * The name the font is registered under.
+     */
+    final String name;
+
+    /**
+     * The family of the font, used to look it up by family and size.
+     */
+    final String family;
+
+    /**
+     * The TTF font data.
+     */
+    final byte[] data;
+
+    /**
+     * The size of the font in pixels.
+     */
+    final int size;
+
+    /**
+     * The size the font is looked up by together with its family. Differs from {@link #size} for display-scaled family sizes.
+     */
+    final int familySize;
+
+    /**
+     * The glyph ranges to include, or {@code null} for the default ranges.
+     * Explicit glyph ranges take precedence over the ranges of the configuration, as in {@code AddFontFromMemoryTTF}.
+     */
+    final short[] glyphRanges;
+
+    /**
+     * Indicates whether a configuration was given. Otherwise ImGui defaults are used.
+     */
+    final boolean customConfig;
+
+    /**
+     * Copied configuration values.
+     */
+    final String configName;
+    final int fontNo;
+    final boolean mergeMode;
+    final int oversampleH;
+    final int oversampleV;
+    final boolean pixelSnapH;
+    final float glyphExtraSpacingX;
+    final float glyphExtraSpacingY;
+    final float glyphOffsetX;
+    final float glyphOffsetY;
+    final float glyphMinAdvanceX;
+    final float glyphMaxAdvanceX;
+    final int fontBuilderFlags;
+    final float rasterizerMultiply;
+    final short ellipsisChar;
+
+    /**
+     * Creates a font spec.
+     * As in {@link ImGuiFont#createFont(String, String, String, int, ImFontConfig, short[])}, the configuration is only
+     * used together with glyph ranges, given explicitly or set on the configuration.
+     *
+     * @param name        the name the font is registered under.
+     * @param family      the family of the font.
+     * @param data        the TTF font data.
+     * @param size        the size of the font in pixels.
+     * @param fontConfig  the font configuration, or {@code null} for defaults.
+     * @param glyphRanges the glyph ranges, or {@code null} for the default ranges.
+     */
+    FontSpec(String name, String family, byte[] data, int size, ImFontConfig fontConfig, short[] glyphRanges) {
+        this(name, family, data, size, size, fontConfig, glyphRanges);
+    }
+
+    /**
+     * Creates a font spec that is rasterized at a different size than it is looked up by.
+     *
+     * @param name        the name the font is registered under.
+     * @param family      the family of the font.
+     * @param data        the TTF font data.
+     * @param size        the size of the font in pixels.
+     * @param familySize  the size the font is looked up by together with its family.
+     * @param fontConfig  the font configuration, or {@code null} for defaults.
+     * @param glyphRanges the glyph ranges, or {@code null} for the default ranges.
+     */
+    FontSpec(String name, String family, byte[] data, int size, int familySize, ImFontConfig fontConfig, short[] glyphRanges) {
+        this.name = name;
+        this.family = family;
+        this.data = data;
+        this.size = size;
+        this.familySize = familySize;
+
+        short[] ranges = glyphRanges != null ? glyphRanges : fontConfig != null ? fontConfig.getGlyphRanges() : null;
+        this.customConfig = fontConfig != null && ranges != null;
+        this.glyphRanges = customConfig ? ranges.clone() : null;
+
+        ImFontConfig config = customConfig ? fontConfig : new ImFontConfig();
+        try {
+            this.configName = config.getName();
+            this.fontNo = config.getFontNo();
+            this.mergeMode = config.getMergeMode();
+            this.oversampleH = config.getOversampleH();
+            this.oversampleV = config.getOversampleV();
+            this.pixelSnapH = config.getPixelSnapH();
+            this.glyphExtraSpacingX = config.getGlyphExtraSpacingX();
+            this.glyphExtraSpacingY = config.getGlyphExtraSpacingY();
+            this.glyphOffsetX = config.getGlyphOffsetX();
+            this.glyphOffsetY = config.getGlyphOffsetY();
+            this.glyphMinAdvanceX = config.getGlyphMinAdvanceX();
+            this.glyphMaxAdvanceX = config.getGlyphMaxAdvanceX();
+            this.fontBuilderFlags = config.getFontBuilderFlags();
+            this.rasterizerMultiply = config.getRasterizerMultiply();
+            this.ellipsisChar = config.getEllipsisChar();
+        } finally {
+            if (config != fontConfig) config.destroy();
+        }
+    }
+
+    /**
+     * Getting the glyph ranges of the font
+     *
+     * @param atlas the atlas providing the default ranges.
+     * @return the configured glyph ranges, or the default ranges of the atlas
+     */
+    short[] getGlyphRanges(ImFontAtlas atlas) {
+        return glyphRanges != null ? glyphRanges : atlas.getGlyphRangesDefault();
+    }
+
+    /**
+     * Adds the font to an atlas with its own glyph ranges.
+     *
+     * @param atlas the atlas to add the font to.
+     * @return the font the glyphs are added to, which is the previous font in merge mode
+     */
+    ImFont addTo(ImFontAtlas atlas) {
+        return addTo(atlas, getGlyphRanges(atlas));
+    }
+
+    /**
+     * Adds the font to an atlas with the given glyph ranges.
+     *
+     * @param atlas       the atlas to add the font to.
+     * @param glyphRanges the glyph ranges to rasterize.
+     * @return the font the glyphs are added to, which is the previous font in merge mode
+     */
+    ImFont addTo(ImFontAtlas atlas, short[] glyphRanges) {
+        ImFontConfig config = new ImFontConfig();
+        try {
+            if (configName != null && !configName.isEmpty()) config.setName(configName);
+            config.setFontNo(fontNo);
+            config.setMergeMode(mergeMode);
+            config.setOversampleH(oversampleH);
+            config.setOversampleV(oversampleV);
+            config.setPixelSnapH(pixelSnapH);
+            config.setGlyphExtraSpacing(glyphExtraSpacingX, glyphExtraSpacingY);
+            config.setGlyphOffset(glyphOffsetX, glyphOffsetY);
+            config.setGlyphMinAdvanceX(glyphMinAdvanceX);
+            config.setGlyphMaxAdvanceX(glyphMaxAdvanceX);
+            config.setFontBuilderFlags(fontBuilderFlags);
+            config.setRasterizerMultiply(rasterizerMultiply);
+            config.setEllipsisChar(ellipsisChar);
+
+            // The glyph ranges are passed explicitly, which takes precedence over the range pointer of the configuration
+
+            return atlas.addFontFromMemoryTTF(data, size, config, glyphRanges);
+        } finally {
+            config.destroy();
+        }
+    }
+
+    /**
+     * Feeds everything that affects the rasterized glyphs into a digest.
+     *
+     * @param digest the digest to update.
+     */
+    void digest(MessageDigest digest) {
+        digest.update(name.getBytes(StandardCharsets.UTF_8));
+        digest.update(data);
+        digest.update(String.format("|%d|%b|%s|%d|%b|%d|%d|%b|%s|%s|%s|%s|%s|%s|%d|%s|%d|", size, customConfig, configName, fontNo,
+                mergeMode, oversampleH, oversampleV, pixelSnapH, glyphExtraSpacingX, glyphExtraSpacingY, glyphOffsetX, glyphOffsetY,
+                glyphMinAdvanceX, glyphMaxAdvanceX, fontBuilderFlags, rasterizerMultiply, ellipsisChar).getBytes(StandardCharsets.UTF_8));
+
+        if (glyphRanges != null) {
+            for (short value : glyphRanges) {
+                digest.update((byte) (value >> 8));
+                digest.update((byte) value);
+            }
+        }
+    }
+
+    /**
+     * Checks if another spec describes the same font, so that adding it again would not change the atlas.
+     *
+     * @param o the other object.
+     * @return {@code true} if the name, family, data, size, configuration and glyph ranges are equal, {@code false} otherwise.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FontSpec other)) return false;
+
+        return size == other.size && familySize == other.familySize && customConfig == other.customConfig && mergeMode == other.mergeMode
+                && fontNo == other.fontNo && oversampleH == other.oversampleH && oversampleV == other.oversampleV && pixelSnapH == other.pixelSnapH
+                && Float.compare(glyphExtraSpacingX, other.glyphExtraSpacingX) == 0
+                && Float.compare(glyphExtraSpacingY, other.glyphExtraSpacingY) == 0
+                && Float.compare(glyphOffsetX, other.glyphOffsetX) == 0
+                && Float.compare(glyphOffsetY, other.glyphOffsetY) == 0
+                && Float.compare(glyphMinAdvanceX, other.glyphMinAdvanceX) == 0
+                && Float.compare(glyphMaxAdvanceX, other.glyphMaxAdvanceX) == 0
+                && fontBuilderFlags == other.fontBuilderFlags
+                && Float.compare(rasterizerMultiply, other.rasterizerMultiply) == 0
+                && ellipsisChar == other.ellipsisChar && Objects.equals(configName, other.configName)
+                && name.equals(other.name) && family.equals(other.family) && Arrays.equals(glyphRanges, other.glyphRanges) && Arrays.equals(data, other.data);
+    }
+
+    /**
+     * Computes the hash code from the name and the size.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, size);
+    }
+}
@@ -0,0 +1,266 @@
+package io.github.brov3r.imgui;
+
+/**
+ * Tracks the time spent on ImGui per frame against a budget and decides which widgets are throttled.
+ * The frame time is smoothed with an exponentially weighted moving average, and the throttling levels are entered and
+ * left at different thresholds, so a single slow frame or a value close to a threshold does not make the widgets flap.
+ * Throttled widgets are updated and rendered at {@value #THROTTLED_RATE} Hz at most: while only throttled widgets have
+ * work to do, the frame is rebuilt at that rate and the previous draw data is replayed in between.
+ */
+public class FrameBudget {
+    /**
+     * Maximum update frequency of throttled widgets in Hz.
+     */
+    public static final int THROTTLED_RATE = 10;
+
+    /**
+     * Weight of the newest frame in the moving average.
+     */
+    private static final double SMOOTHING = 0.1;
+
+    /**
+     * Ratios of the average frame time to the budget at which low-priority widgets are throttled and released.
+     */
+    private static final double LOW_ENTER = 1.0, LOW_EXIT = 0.8;
+
+    /**
+     * Ratios of the average frame time to the budget at which normal-priority widgets are throttled and released.
+     */
+    private static final double NORMAL_ENTER = 2.0, NORMAL_EXIT = 1.5;
+
+    /**
+     * Budget in nanoseconds, or {@code 0} if the budget is disabled.
+     */
+    private volatile long budgetNanos;
+
+    /**
+     * Moving average of the frame time in nanoseconds.
+     */
+    private volatile double averageNanos;
+
+    /**
+     * Lowest priority that is not throttled, i.e. {@link WidgetPriority#LOW} if no widget is throttled.
+     */
+    private volatile WidgetPriority threshold = WidgetPriority.LOW;
+
+    /**
+     * Number of measured frames and frames above the budget.
+     */
+    private volatile long frames, framesOverBudget;
+
+    /**
+     * Number of frames in which widgets were throttled.
+     */
+    private volatile long throttledFrames;
+
+    /**
+     * Number of times the update of a throttled widget was deferred to a later frame.
+     */
+    private volatile long deferredUpdates;
+
+    /**
+     * Number of frames that replayed the previous draw data because only throttled widgets had work to do.
+     */
+    private volatile long replayedFrames;
+
+    /**
+     * Number of widgets whose updates were throttled in the last frame.
+     */
+    private volatile int throttledWidgets;
+
+    /**
+     * Time spent on ImGui per frame.
+     */
+    private final FrameTimeHistogram frameTime = new FrameTimeHistogram();
+
+    /**
+     * Sets the budget.
+     *
+     * @param budgetMillis the budget in milliseconds, or {@code 0} to disable throttling.
+     */
+    public void setBudget(double budgetMillis) {
+        budgetNanos = Math.max(0, (long) (budgetMillis * 1_000_000));
+
+        if (budgetNanos == 0) {
+            threshold = WidgetPriority.LOW;
+        }
+    }
+
+    /**
+     * Getting the budget
+     *
+     * @return the budget in milliseconds, or {@code 0} if throttling is disabled
+     */
+    public double getBudget() {
+        return budgetNanos / 1_000_000.0;
+    }
+
+    /**
+     * Records the time spent on ImGui in a frame and updates the throttling level.
+     * Must only be called from the render thread.
+     *
+     * @param nanos the duration in nanoseconds.
+     */
+    void record(long nanos) {
+        frameTime.record(nanos);
+        averageNanos = frames == 0 ? nanos : averageNanos + SMOOTHING * (nanos - averageNanos);
+        frames++;
+
+        long budget = budgetNanos;
+        if (budget == 0) return;
+
+        if (nanos > budget) framesOverBudget++;
+
+        double usage = averageNanos / budget;
+        WidgetPriority current = threshold;
+
+        if (current == WidgetPriority.LOW) {
+            if (usage > NORMAL_ENTER) current = WidgetPriority.HIGH;
+            else if (usage > LOW_ENTER) current = WidgetPriority.NORMAL;
+        } else if (current == WidgetPriority.NORMAL) {
+            if (usage > NORMAL_ENTER) current = WidgetPriority.HIGH;
+            else if (usage < LOW_EXIT) current = WidgetPriority.LOW;
+        } else if (usage < NORMAL_EXIT) {
+            current = usage < LOW_EXIT ? WidgetPriority.LOW : WidgetPriority.NORMAL;
+        }
+
+        if (current != threshold) {
+            System.out.printf("[#] ImGui - frame budget %.2f ms, average %.2f ms: %s%n", getBudget(), getAverage(),
+                    current == WidgetPriority.LOW ? "all widgets at full rate" : "throttling widgets below " + current + " priority");
+            threshold = current;
+        }
+    }
+
+    /**
+     * Getting the maximum update frequency of a widget of a priority in the current frame
+     *
+     * @param priority the priority of the widget.
+     * @return the maximum frequency in Hz, or {@code 0} if the widget is not throttled
+     */
+    int getMaxRate(WidgetPriority priority) {
+        return priority.compareTo(threshold) > 0 ? THROTTLED_RATE : 0;
+    }
+
+    /**
+     * Checks if any widget is throttled.
+     *
+     * @return {@code true} if widgets below some priority are throttled, {@code false} otherwise.
+     */
+    boolean isThrottling() {
+        return threshold != WidgetPriority.LOW;
+    }
+
+    /**
+     * Records a frame that replayed the previous draw data because only throttled widgets had work to do.
+     * Must only be called from the render thread.
+     */
+    void recordReplay() {
+        replayedFrames++;
+    }
+
+    /**
+     * Records the throttling decisions of a frame.
+     * Must only be called from the render thread.
+     *
+     * @param throttled number of widgets whose updates were throttled.
+     * @param deferred  number of throttled widgets whose update was deferred.
+     */
+    void recordThrottling(int throttled, int deferred) {
+        throttledWidgets = throttled;
+        if (throttled > 0) throttledFrames++;
+        deferredUpdates += deferred;
+    }
+
+    /**
+     * Getting the moving average of the time spent on ImGui per frame
+     *
+     * @return average frame time in milliseconds
+     */
+    public double getAverage() {
+        return averageNanos / 1_000_000.0;
+    }
+
+    /**
+     * Getting the share of the budget used by the average frame
+     *
+     * @return average frame time divided by the budget, or {@code 0} if throttling is disabled
+     */
+    public double getUsage() {
+        long budget = budgetNanos;
+        return budget == 0 ? 0 : averageNanos / budget;
+    }
+
+    /**
+     * Getting the lowest priority that is updated at full rate
+     *
+     * @return {@link WidgetPriority#LOW} if no widget is throttled, {@link WidgetPriority#NORMAL} if low-priority widgets
+     * are throttled, {@link WidgetPriority#HIGH} if only high-priority widgets are updated at full rate
+     */
+    public WidgetPriority getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Getting the number of measured frames
+     *
+     * @return number of frames
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Getting the number of frames that took longer than the budget
+     *
+     * @return number of frames over budget
+     */
+    public long getFramesOverBudget() {
+        return framesOverBudget;
+    }
+
+    /**
+     * Getting the number of frames in which widgets were throttled
+     *
+     * @return number of throttled frames
+     */
+    public long getThrottledFrames() {
+        return throttledFrames;
+    }
+
+    /**
+     * Getting the number of times the update of a throttled widget was deferred to a later frame.
+     * The widget was still rendered in these frames, with the results of its last update.
+     *
+     * @return number of deferred updates
+     */
+    public long getDeferredUpdates() {
+        return deferredUpdates;
+    }
+
+    /**
+     * Getting the number of frames that replayed the previous draw data because only throttled widgets had work to do
+     *
+     * @return number of replayed frames
+     */
+    public long getReplayedFrames() {
+        return replayedFrames;
+    }
+
+    /**
+     * Getting the number of widgets whose updates were throttled in the last frame
+     *
+     * @return number of throttled widgets
+     */
+    public int getThrottledWidgets() {
+        return throttledWidgets;
+    }
+
+    /**
+     * Getting the time spent on ImGui over the most recent frames
+     *
+     * @return frame time histogram
+     */
+    public FrameTimeHistogram getFrameTime() {
+        return frameTime;
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.brov3r.imgui;
+
+import java.util.Arrays;
+
+/**
+ * Rolling window of the most recent durations, with percentile queries.
+ * Samples are stored in a fixed-size ring buffer and percentiles are computed in a preallocated scratch array,
+ * so neither recording nor querying allocates memory.
+ * Recording and queries take the lock of the histogram, so percentiles can be read from any thread,
+ * e.g. by a widget while the render thread records; the lock is uncontended in the common case.
+ */
+public class FrameTimeHistogram {
+    /**
+     * Number of most recent samples kept by the histogram.
+     */
+    public static final int CAPACITY = 256;
+
+    /**
+     * Ring buffer of samples in nanoseconds.
+     */
+    private final long[] samples = new long[CAPACITY];
+
+    /**
+     * Scratch buffer used to sort the samples when computing percentiles.
+     */
+    private final long[] sorted = new long[CAPACITY];
+
+    /**
+     * Index of the next sample in the ring buffer.
+     */
+    private int next = 0;
+
+    /**
+     * Number of recorded samples, capped at {@link #CAPACITY}.
+     */
+    private int count = 0;
+
+    /**
+     * Number of samples reflected in {@link #sorted}, or {@code -1} if it is outdated.
+     */
+    private int sortedCount = -1;
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration in nanoseconds.
+     */
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) & (CAPACITY - 1);
+        if (count < CAPACITY) count++;
+        sortedCount = -1;
+    }
+
+    /**
+     * Getting the number of samples in the window
+     *
+     * @return number of samples, at most {@link #CAPACITY}
+     */
+    public synchronized int getSampleCount() {
+        return count;
+    }
+
+    /**
+     * Getting the median duration
+     *
+     * @return 50th percentile in nanoseconds
+     */
+    public long getP50() {
+        return getPercentile(0.50);
+    }
+
+    /**
+     * Getting the 95th percentile duration
+     *
+     * @return 95th percentile in nanoseconds
+     */
+    public long getP95() {
+        return getPercentile(0.95);
+    }
+
+    /**
+     * Getting the 99th percentile duration
+     *
+     * @return 99th percentile in nanoseconds
+     */
+    public long getP99() {
+        return getPercentile(0.99);
+    }
+
+    /**
+     * Getting the longest duration in the window
+     *
+     * @return maximum in nanoseconds, or {@code 0} if there are no samples
+     */
+    public long getMax() {
+        return getPercentile(1.0);
+    }
+
+    /**
+     * Computes a percentile of the durations in the window (nearest-rank method).
+     *
+     * @param percentile the percentile as a fraction in the range [0, 1].
+     * @return the percentile in nanoseconds, or {@code 0} if there are no samples
+     */
+    public synchronized long getPercentile(double percentile) {
+        int n = count;
+        if (n == 0) return 0;
+
+        if (sortedCount != n) {
+            System.arraycopy(samples, 0, sorted, 0, n);
+            Arrays.sort(sorted, 0, n);
+            sortedCount = n;
+        }
+
+        int rank = (int) Math.ceil(percentile * n) - 1;
+        return sorted[Math.max(0, Math.min(n - 1, rank))];
+    }
+}
@@ -0,0 +1,152 @@
+package io.github.brov3r.imgui;
+
+import imgui.ImFontAtlas;
+import imgui.ImFontGlyphRangesBuilder;
+import zombie.core.Translator;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Decides which glyph scripts are baked into the font atlas.
+ * The atlas starts with Latin, the icons and the scripts of the game language.
+ * Scripts requested later are collected and added together by the next atlas rebuild.
+ */
+class GlyphRangePolicy {
+    /**
+     * Scripts baked into the current atlas.
+     */
+    private final Set<GlyphScript> activeScripts = EnumSet.noneOf(GlyphScript.class);
+
+    /**
+     * Scripts baked at start, before any request.
+     */
+    private final Set<GlyphScript> initialScripts = EnumSet.noneOf(GlyphScript.class);
+
+    /**
+     * Scripts requested since the last atlas build.
+     */
+    private final Set<GlyphScript> pendingScripts = EnumSet.noneOf(GlyphScript.class);
+
+    /**
+     * Resets the active scripts to Latin, the icons and the scripts of the game language.
+     * Pending requests are kept and applied on top.
+     */
+    synchronized void reset() {
+        activeScripts.clear();
+        activeScripts.add(GlyphScript.LATIN);
+        activeScripts.add(GlyphScript.ICONS);
+        activeScripts.addAll(getLanguageScripts());
+
+        initialScripts.clear();
+        initialScripts.addAll(activeScripts);
+    }
+
+    /**
+     * Requests a script to be baked into the atlas.
+     *
+     * @param script the script.
+     * @return {@code true} if the script is neither baked nor requested yet, {@code false} otherwise.
+     */
+    synchronized boolean request(GlyphScript script) {
+        if (activeScripts.contains(script)) return false;
+
+        return pendingScripts.add(script);
+    }
+
+    /**
+     * Requests the scripts of all codepoints in a text.
+     *
+     * @param text the text to be displayed.
+     * @return {@code true} if any new script was requested, {@code false} otherwise.
+     */
+    boolean request(CharSequence text) {
+        boolean requested = false;
+        GlyphScript last = null;
+
+        for (int i = 0; i < text.length(); ) {
+            int codepoint = Character.codePointAt(text, i);
+            i += Character.charCount(codepoint);
+
+            GlyphScript script = GlyphScript.of(codepoint);
+            if (script == null || script == last) continue;
+
+            last = script;
+            requested |= request(script);
+        }
+
+        return requested;
+    }
+
+    /**
+     * Moves the requested scripts to the active scripts.
+     *
+     * @return {@code true} if any script was pending, {@code false} otherwise.
+     */
+    synchronized boolean applyPending() {
+        if (pendingScripts.isEmpty()) return false;
+
+        activeScripts.addAll(pendingScripts);
+        pendingScripts.clear();
+        return true;
+    }
+
+    /**
+     * Getting the glyph ranges of the active text scripts
+     *
+     * @param atlas the atlas providing the built-in ranges.
+     * @return the zero-terminated glyph ranges of all active scripts except the icons
+     */
+    synchronized short[] getTextRanges(ImFontAtlas atlas) {
+        ImFontGlyphRangesBuilder builder = new ImFontGlyphRangesBuilder();
+        for (GlyphScript script : activeScripts) {
+            if (script != GlyphScript.ICONS) builder.addRanges(script.getGlyphRanges(atlas));
+        }
+        return builder.buildRanges();
+    }
+
+    /**
+     * Getting the scripts baked into the current atlas
+     *
+     * @return copy of the active scripts
+     */
+    synchronized Set<GlyphScript> getActiveScripts() {
+        return EnumSet.copyOf(activeScripts);
+    }
+
+    /**
+     * Getting the scripts that were requested after start and are baked into the current atlas
+     *
+     * @return the active scripts that are not initial scripts
+     */
+    synchronized Set<GlyphScript> getRequestedScripts() {
+        Set<GlyphScript> requested = EnumSet.copyOf(activeScripts);
+        requested.removeAll(initialScripts);
+        return requested;
+    }
+
+    /**
+     * Getting the scripts required by the game language
+     *
+     * @return the scripts of the active game language, or an empty set if it can not be determined
+     */
+    private static Set<GlyphScript> getLanguageScripts() {
+        String language;
+        try {
+            language = Translator.getLanguage().name();
+        } catch (Exception | LinkageError e) {
+            return EnumSet.noneOf(GlyphScript.class);
+        }
+
+        return switch (language) {
+            case "RU", "UA" -> EnumSet.of(GlyphScript.CYRILLIC);
+            case "PL", "CS", "HU", "RO", "TR" -> EnumSet.of(GlyphScript.LATIN_EXTENDED);
+            case "JP" -> EnumSet.of(GlyphScript.JAPANESE);
+            case "CN" -> EnumSet.of(GlyphScript.CHINESE_SIMPLIFIED);
+            case "CH" -> EnumSet.of(GlyphScript.CHINESE_FULL);
+            case "KO" -> EnumSet.of(GlyphScript.KOREAN);
+            case "TH" -> EnumSet.of(GlyphScript.THAI);
+            default -> EnumSet.noneOf(GlyphScript.class);
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package io.github.brov3r.imgui;
+
+import imgui.ImFontAtlas;
+
+/**
+ * Writing systems whose glyphs can be baked into the font atlas.
+ * Only the scripts of the game language are baked at start, other scripts are added on request.
+ */
+public enum GlyphScript {
+    /**
+     * Basic Latin and Latin-1 Supplement.
+     */
+    LATIN,
+
+    /**
+     * Latin Extended-A and Extended-B, used by Central European languages and Turkish.
+     */
+    LATIN_EXTENDED,
+
+    /**
+     * Greek and Coptic.
+     */
+    GREEK,
+
+    /**
+     * Cyrillic and its supplements.
+     */
+    CYRILLIC,
+
+    /**
+     * Vietnamese letters with diacritics.
+     */
+    VIETNAMESE,
+
+    /**
+     * Thai.
+     */
+    THAI,
+
+    /**
+     * Hangul syllables and jamo.
+     */
+    KOREAN,
+
+    /**
+     * Kana, punctuation and common kanji.
+     */
+    JAPANESE,
+
+    /**
+     * Common simplified Chinese ideographs.
+     */
+    CHINESE_SIMPLIFIED,
+
+    /**
+     * All CJK unified ideographs.
+     */
+    CHINESE_FULL,
+
+    /**
+     * FontAwesome icons.
+     */
+    ICONS;
+
+    /**
+     * Additional glyph ranges that have no getter in the font atlas.
+     */
+    private static final short[] LATIN_EXTENDED_RANGES = {0x0100, 0x024F, 0};
+    private static final short[] GREEK_RANGES = {0x0370, 0x03FF, 0};
+
+    /**
+     * Getting the glyph ranges of the script
+     *
+     * @param atlas the atlas providing the built-in ranges.
+     * @return the zero-terminated glyph ranges
+     */
+    short[] getGlyphRanges(ImFontAtlas atlas) {
+        return switch (this) {
+            case LATIN -> atlas.getGlyphRangesDefault();
+            case LATIN_EXTENDED -> LATIN_EXTENDED_RANGES;
+            case GREEK -> GREEK_RANGES;
+            case CYRILLIC -> atlas.getGlyphRangesCyrillic();
+            case VIETNAMESE -> atlas.getGlyphRangesVietnamese();
+            case THAI -> atlas.getGlyphRangesThai();
+            case KOREAN -> atlas.getGlyphRangesKorean();
+            case JAPANESE -> atlas.getGlyphRangesJapanese();
+            case CHINESE_SIMPLIFIED -> atlas.getGlyphRangesChineseSimplifiedCommon();
+            case CHINESE_FULL -> atlas.getGlyphRangesChineseFull();
+            case ICONS -> FontAwesomeIcons._IconRange;
+        };
+    }
+
+    /**
+     * Retrieves the script a codepoint belongs to.
+     *
+     * @param codepoint the Unicode codepoint.
+     * @return the script, or {@code null} if the codepoint is Latin-1 or not covered by any script
+     */
+    public static GlyphScript of(int codepoint) {
+        if (codepoint < 0x0100) return null;
+        if (codepoint <= 0x024F) return LATIN_EXTENDED;
+        if (codepoint >= 0x0370 && codepoint <= 0x03FF) return GREEK;
+        if (codepoint >= 0x0400 && codepoint <= 0x052F) return CYRILLIC;
+        if (codepoint >= 0x0E00 && codepoint <= 0x0E7F) return THAI;
+        if (codepoint >= 0x1EA0 && codepoint <= 0x1EFF) return VIETNAMESE;
+        if (codepoint >= 0x2DE0 && codepoint <= 0x2DFF) return CYRILLIC;
+        if (codepoint >= 0x3000 && codepoint <= 0x30FF) return JAPANESE;
+        if (codepoint >= 0x3130 && codepoint <= 0x318F) return KOREAN;
+        if (codepoint >= 0x31F0 && codepoint <= 0x31FF) return JAPANESE;
+        if (codepoint >= 0x4E00 && codepoint <= 0x9FAF) return CHINESE_SIMPLIFIED;
+        if (codepoint >= 0xA640 && codepoint <= 0xA69F) return CYRILLIC;
+        if (codepoint >= 0xAC00 && codepoint <= 0xD7A3) return KOREAN;
+        if (codepoint >= 0xE000 && codepoint <= 0xF8FF) return ICONS;
+        if (codepoint >= 0xFF00 && codepoint <= 0xFFEF) return JAPANESE;
+        return null;
+    }
+}
@@ -0,0 +1,342 @@
+package io.github.brov3r.imgui;
+
+import imgui.ImDrawData;
+import imgui.ImFont;
+import imgui.ImFontAtlas;
+import imgui.ImFontGlyph;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Records which glyphs of each font are actually drawn and persists them across sessions,
+ * so that the next start only bakes the used glyphs plus a safety margin.
+ * <p>
+ * Glyphs are recognised by the texture coordinates of the vertices in the draw data: the top-left corner of every glyph quad
+ * points to a unique texel of the atlas. All methods except the background write are called on the render thread.
+ */
+class GlyphUsageTracker {
+    /**
+     * Marks a glyph usage file.
+     */
+    private static final int MAGIC = 0x49475555;
+
+    /**
+     * Version of the binary format.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * The draw data is scanned once per this number of rebuilt frames.
+     */
+    private static final int SAMPLE_INTERVAL = 30;
+
+    /**
+     * Minimum time between two writes of the usage file, in nanoseconds.
+     */
+    private static final long SAVE_INTERVAL = 30_000_000_000L;
+
+    /**
+     * Glyphs that are always baked, even if they were never drawn: Latin-1, general punctuation and the replacement character.
+     */
+    private static final short[] SAFETY_MARGIN = {0x0020, 0x00FF, 0x2000, 0x206F, (short) 0xFFFD, (short) 0xFFFD, 0};
+
+    /**
+     * Offset of the texture coordinates in a vertex.
+     */
+    private static final int UV_OFFSET = 8;
+
+    /**
+     * The file the usage is persisted to.
+     */
+    private final Path file;
+
+    /**
+     * Executor of the background writes.
+     */
+    private final Executor executor;
+
+    /**
+     * Codepoints drawn by each font name over all recorded sessions.
+     */
+    private final Map<String, BitSet> usage = new HashMap<>();
+
+    /**
+     * Glyphs of the current atlas, sorted by texel: texel index in the upper 32 bits, font index and codepoint in the lower.
+     */
+    private long[] glyphs = new long[0];
+
+    /**
+     * Names of the font specs of each font in the current atlas.
+     */
+    private List<List<String>> fontNames = new ArrayList<>();
+
+    /**
+     * Codepoints drawn by each font of the current atlas since the last merge.
+     */
+    private BitSet[] drawn = new BitSet[0];
+
+    /**
+     * Size of the current atlas texture.
+     */
+    private int texWidth, texHeight;
+
+    /**
+     * Frame counter used for sampling and the time of the last write.
+     */
+    private int frame;
+    private long lastSave = System.nanoTime();
+
+    /**
+     * Indicates whether codepoints were drawn that are not persisted yet.
+     */
+    private boolean dirty;
+
+    /**
+     * Creates a tracker.
+     *
+     * @param file     the file the usage is persisted to.
+     * @param executor the executor of the background writes.
+     */
+    GlyphUsageTracker(Path file, Executor executor) {
+        this.file = file;
+        this.executor = executor;
+    }
+
+    /**
+     * Loads the usage recorded by previous sessions.
+     */
+    void load() {
+        if (!Files.isRegularFile(file)) return;
+
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Not a glyph usage file");
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String fontName = in.readUTF();
+                byte[] bits = new byte[in.readInt()];
+                in.readFully(bits);
+                usage.put(fontName, BitSet.valueOf(bits));
+            }
+        } catch (IOException e) {
+            System.out.printf("[!] Failed to read glyph usage '%s': %s%n", file.getFileName(), e.getMessage());
+            usage.clear();
+        }
+    }
+
+    /**
+     * Reduces glyph ranges to the glyphs recorded for a font, the safety margin and the glyphs of the given scripts.
+     *
+     * @param fontName    the name of the font.
+     * @param glyphRanges the full glyph ranges.
+     * @param keepScripts scripts whose glyphs are kept completely, such as scripts requested at runtime.
+     * @param atlas       the atlas providing the built-in glyph ranges.
+     * @return the reduced glyph ranges, or the full ranges if nothing was recorded for the font
+     */
+    short[] filter(String fontName, short[] glyphRanges, Set<GlyphScript> keepScripts, ImFontAtlas atlas) {
+        BitSet used = usage.get(fontName);
+        if (used == null) return glyphRanges;
+
+        BitSet keep = (BitSet) used.clone();
+        BakedAtlas.addRanges(keep, SAFETY_MARGIN);
+        for (GlyphScript script : keepScripts) {
+            BakedAtlas.addRanges(keep, script.getGlyphRanges(atlas));
+        }
+
+        BitSet result = new BitSet();
+        BakedAtlas.addRanges(result, glyphRanges);
+        result.and(keep);
+
+        return result.isEmpty() ? glyphRanges : BakedAtlas.toRanges(result);
+    }
+
+    /**
+     * Indexes the glyphs of a newly built atlas by their texel.
+     *
+     * @param atlas the built atlas.
+     * @param specs the font specs in atlas order.
+     * @param fonts the built-in font followed by the font of each spec.
+     */
+    void index(ImFontAtlas atlas, List<FontSpec> specs, List<ImFont> fonts) {
+        merge();
+
+        int[] destinations = BakedAtlas.getDestinations(specs);
+        int fontCount = destinations.length == 0 ? 1 : destinations[destinations.length - 1] + 1;
+
+        ImFont[] dstFonts = new ImFont[fontCount];
+        BitSet[] codepoints = new BitSet[fontCount];
+        List<List<String>> names = new ArrayList<>();
+        for (int f = 0; f < fontCount; f++) {
+            codepoints[f] = new BitSet();
+            names.add(new ArrayList<>());
+        }
+        for (int i = 0; i < specs.size(); i++) {
+            dstFonts[destinations[i]] = fonts.get(i + 1);
+            names.get(destinations[i]).add(specs.get(i).name);
+            BakedAtlas.addRanges(codepoints[destinations[i]], specs.get(i).getGlyphRanges(atlas));
+        }
+
+        texWidth = atlas.getTexWidth();
+        texHeight = atlas.getTexHeight();
+
+        long[] entries = new long[64];
+        int count = 0;
+        for (int f = 0; f < fontCount; f++) {
+            ImFont font = dstFonts[f];
+            BitSet set = codepoints[f];
+
+            for (int cp = set.nextSetBit(0); font != null && cp >= 0; cp = set.nextSetBit(cp + 1)) {
+                ImFontGlyph glyph = font.findGlyph(cp);
+                if (glyph == null || glyph.getCodepoint() != cp || glyph.getX1() <= glyph.getX0()) continue;
+
+                if (count == entries.length) entries = Arrays.copyOf(entries, count * 2);
+                entries[count++] = ((long) getTexel(glyph.getU0(), glyph.getV0()) << 32) | ((long) f << 16) | cp;
+            }
+        }
+
+        glyphs = Arrays.copyOf(entries, count);
+        Arrays.sort(glyphs);
+
+        fontNames = names;
+        drawn = new BitSet[fontCount];
+        for (int f = 0; f < fontCount; f++) {
+            drawn[f] = new BitSet();
+        }
+    }
+
+    /**
+     * Records the glyphs drawn by a frame. Only every {@value #SAMPLE_INTERVAL}-th call scans the draw data.
+     *
+     * @param drawData the draw data of the frame.
+     */
+    void sample(ImDrawData drawData) {
+        if (glyphs.length == 0 || ++frame % SAMPLE_INTERVAL != 0) return;
+
+        for (int list = 0; list < drawData.getCmdListsCount(); list++) {
+            ByteBuffer vertices = drawData.getCmdListVtxBufferData(list).order(ByteOrder.nativeOrder());
+            int vertexCount = vertices.limit() / ImDrawData.SIZEOF_IM_DRAW_VERT;
+
+            for (int v = 0; v < vertexCount; v++) {
+                int offset = v * ImDrawData.SIZEOF_IM_DRAW_VERT + UV_OFFSET;
+                int index = find(getTexel(vertices.getFloat(offset), vertices.getFloat(offset + 4)));
+                if (index < 0) continue;
+
+                int value = (int) glyphs[index];
+                BitSet set = drawn[value >>> 16];
+                if (!set.get(value & 0xFFFF)) {
+                    set.set(value & 0xFFFF);
+                    dirty = true;
+                }
+            }
+        }
+
+        if (dirty && System.nanoTime() - lastSave > SAVE_INTERVAL) {
+            save();
+        }
+    }
+
+    /**
+     * Writes the recorded usage in the background.
+     */
+    void save() {
+        merge();
+        dirty = false;
+        lastSave = System.nanoTime();
+
+        byte[] data;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(usage.size());
+            for (Map.Entry<String, BitSet> entry : usage.entrySet()) {
+                byte[] bits = entry.getValue().toByteArray();
+                out.writeUTF(entry.getKey());
+                out.writeInt(bits.length);
+                out.write(bits);
+            }
+            data = bytes.toByteArray();
+        } catch (IOException e) {
+            return;
+        }
+
+        executor.execute(() -> {
+            try {
+                Files.createDirectories(file.getParent());
+                Path temp = Files.createTempFile(file.getParent(), "glyph-usage", ".tmp");
+                Files.write(temp, data);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.out.printf("[!] Failed to write glyph usage: %s%n", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Adds the codepoints drawn since the last merge to the usage of the font names.
+     */
+    private void merge() {
+        for (int f = 0; f < drawn.length; f++) {
+            if (drawn[f].isEmpty()) continue;
+
+            for (String fontName : fontNames.get(f)) {
+                usage.computeIfAbsent(fontName, name -> new BitSet()).or(drawn[f]);
+            }
+            drawn[f].clear();
+        }
+    }
+
+    /**
+     * Converts texture coordinates to a texel index.
+     *
+     * @param u the horizontal texture coordinate.
+     * @param v the vertical texture coordinate.
+     * @return the index of the nearest texel
+     */
+    private int getTexel(float u, float v) {
+        return Math.round(v * texHeight) * texWidth + Math.round(u * texWidth);
+    }
+
+    /**
+     * Finds the glyph whose top-left corner is at a texel.
+     *
+     * @param texel the texel index.
+     * @return the index of the glyph entry, or -1 if no glyph starts at the texel
+     */
+    private int find(int texel) {
+        int low = 0, high = glyphs.length - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int key = (int) (glyphs[mid] >>> 32);
+
+            if (key < texel) {
+                low = mid + 1;
+            } else if (key > texel) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+}
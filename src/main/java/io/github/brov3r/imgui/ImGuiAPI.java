@@ -1,12 +1,16 @@
 package io.github.brov3r.imgui;
 
+import com.avrix.plugin.Plugin;
 import imgui.ImFont;
 import imgui.ImFontConfig;
 import imgui.ImGuiIO;
 
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface for managing ImGui fonts and widgets.
@@ -31,7 +35,7 @@ public interface ImGuiAPI {
     /**
      * Retrieves the list of widgets managed by ImGui.
      *
-     * @return a {@link List} of {@link ImGuiWidget} instances.
+     * @return an unmodifiable {@link List} of {@link ImGuiWidget} instances in render order.
      */
     List<ImGuiWidget> getWidgets();
 
@@ -101,6 +105,19 @@ public interface ImGuiAPI {
      */
     ImFont createFont(String fontName, Path fontPath, int fontSize);
 
+    /**
+     * Creates and adds a font to the manager from a font source, such as a classpath resource of a plugin.
+     * This method adds the created {@link ImFont} to the font manager with the specified name.
+     *
+     * @param fontName    the name to associate with the font.
+     * @param source      the location of the font data, see {@link FontSource}.
+     * @param fontSize    the size of the font.
+     * @param fontConfig  the configuration for the font, or null for the default configuration.
+     * @param glyphRanges the glyph ranges for the font, or null for the default ranges.
+     * @return the created {@link ImFont}, or null if the font creation or addition failed.
+     */
+    ImFont createFont(String fontName, FontSource source, int fontSize, ImFontConfig fontConfig, short[] glyphRanges);
+
     /**
      * Loads font data from a file located within a JAR.
      * This method retrieves the font data as a byte array, which can be used for font creation.
@@ -119,4 +136,199 @@ public interface ImGuiAPI {
      * @return a byte array containing the font data, or null if loading failed.
      */
     byte[] loadFontBytes(Path fontPath);
+
+    /**
+     * Loads font data from a font source without extracting it to a temporary file.
+     * This method retrieves the font data as a byte array, which can be used for font creation.
+     *
+     * @param source the location of the font data, see {@link FontSource}.
+     * @return a byte array containing the font data, or null if loading failed.
+     */
+    byte[] loadFontBytes(FontSource source);
+
+    /**
+     * Starts reading font data on a background thread, for example in the {@code onInitialize} of a plugin.
+     * A later {@code createFont} or {@code registerFontFamily} with the same source takes the loaded data
+     * instead of reading the font on the render thread.
+     *
+     * @param source the location of the font data, see {@link FontSource}.
+     * @return a future that completes with the font data.
+     */
+    CompletableFuture<byte[]> preloadFont(FontSource source);
+
+    /**
+     * Checks if the retained mode is enabled.
+     * In this mode ImGui frames are only rebuilt when a widget or the input marks them dirty,
+     * otherwise the previous frame is drawn again.
+     *
+     * @return {@code true} if the retained mode is enabled, {@code false} otherwise.
+     */
+    boolean isRetainedMode();
+
+    /**
+     * Enables or disables the retained mode.
+     * Widgets must call {@link ImGuiWidget#markDirty()} whenever the data they display changes.
+     *
+     * @param enabled {@code true} to enable the retained mode, {@code false} to rebuild every frame.
+     */
+    void setRetainedMode(boolean enabled);
+
+    /**
+     * Marks the ImGui output as outdated, so the next frames are rebuilt in the retained mode.
+     */
+    void markDirty();
+
+    /**
+     * Adds several widgets to the manager at once.
+     * The widget list is republished once for the whole batch.
+     *
+     * @param widgets the {@link ImGuiWidget} instances to add.
+     */
+    void addWidgets(Collection<? extends ImGuiWidget> widgets);
+
+    /**
+     * Removes several widgets from the manager at once.
+     * The widget list is republished once for the whole batch.
+     *
+     * @param widgets the {@link ImGuiWidget} instances to remove.
+     */
+    void removeWidgets(Collection<? extends ImGuiWidget> widgets);
+
+    /**
+     * Retrieves the update and render durations of a widget over the most recent frames.
+     *
+     * @param widget the {@link ImGuiWidget} to inspect.
+     * @return the {@link WidgetProfile} with p50/p95/p99/max durations of the widget.
+     */
+    WidgetProfile getWidgetProfile(ImGuiWidget widget);
+
+    /**
+     * Retrieves the built-in widget that displays the update and render durations of all widgets.
+     * It is not added to the screen unless enabled in the config; call {@link ImGuiWidget#addToScreen()} to show it.
+     *
+     * @return the {@link ImGuiDebugWidget} instance.
+     */
+    ImGuiDebugWidget getDebugWidget();
+
+    /**
+     * Retrieves the input capture decision of the last ImGui frame.
+     * The mouse, keyboard and text-input flags and the frame number are published together,
+     * so they can be read from the game thread at once with {@link InputCaptureState#read()}.
+     *
+     * @return the published {@link InputCaptureState}.
+     */
+    InputCaptureState getInputCaptureState();
+
+    /**
+     * Requests the glyphs of a script to be added to the font atlas.
+     * Only the scripts of the game language are baked at start; requests are applied together by one atlas rebuild at the next frame.
+     *
+     * @param script the {@link GlyphScript} to add.
+     */
+    void requestGlyphScript(GlyphScript script);
+
+    /**
+     * Requests the scripts of all characters of a text to be added to the font atlas.
+     * Useful for text whose language is not known in advance, such as chat messages or player names.
+     *
+     * @param text the text to be displayed.
+     */
+    void requestGlyphs(CharSequence text);
+
+    /**
+     * Retrieves the glyph scripts baked into the font atlas.
+     *
+     * @return a {@link Set} of the active {@link GlyphScript} values.
+     */
+    Set<GlyphScript> getGlyphScripts();
+
+    /**
+     * Retrieves the handle of a font by its name.
+     * Resolve the handle once and call {@link FontHandle#get()} in {@code render()}, which costs an array read instead of a map lookup.
+     * The handle stays valid across atlas rebuilds and resolves to the built-in font until the font is created.
+     *
+     * @param fontName the name of the font.
+     * @return the {@link FontHandle} of the font.
+     */
+    FontHandle getFontHandle(String fontName);
+
+    /**
+     * Retrieves the handle of a font by its family and size, e.g. {@code ("Roboto", 14)}.
+     * The handle stays valid across atlas rebuilds and resolves to the built-in font until such a font is created.
+     *
+     * @param family the family of the font, case-insensitive.
+     * @param size   the size of the font in pixels.
+     * @return the {@link FontHandle} of the font.
+     */
+    FontHandle getFontHandle(String family, int size);
+
+    /**
+     * Registers a font family from a font file located within a JAR.
+     * Sizes of the family are added to the font atlas when a handle from {@link #getFontHandle(String, int)} is first used,
+     * scaled to the screen resolution, and evicted again when they are no longer used.
+     *
+     * @param family           the name of the family, case-insensitive.
+     * @param jarFilePath      the path to the JAR file.
+     * @param internalFilePath the path to the font file within the JAR.
+     * @return {@code true} if the font data was loaded, {@code false} otherwise.
+     */
+    boolean registerFontFamily(String family, String jarFilePath, String internalFilePath);
+
+    /**
+     * Registers a font family from a font file located at a specified path.
+     * Sizes of the family are added to the font atlas when a handle from {@link #getFontHandle(String, int)} is first used,
+     * scaled to the screen resolution, and evicted again when they are no longer used.
+     *
+     * @param family   the name of the family, case-insensitive.
+     * @param fontPath the path to the font file.
+     * @return {@code true} if the font data was loaded, {@code false} otherwise.
+     */
+    boolean registerFontFamily(String family, Path fontPath);
+
+    /**
+     * Registers a font family from a font source, such as a classpath resource of a plugin.
+     * Sizes of the family are added to the font atlas when a handle from {@link #getFontHandle(String, int)} is first used.
+     *
+     * @param family the name of the family, case-insensitive.
+     * @param source the location of the font data, see {@link FontSource}.
+     * @return {@code true} if the font data was loaded, {@code false} otherwise.
+     */
+    boolean registerFontFamily(String family, FontSource source);
+
+    /**
+     * Retrieves the scale applied to font family sizes, derived from the screen width.
+     *
+     * @return the display scale, at least 1.
+     */
+    float getDisplayScale();
+
+    /**
+     * Requests the initialization of ImGui, which otherwise starts with the first widget or font request.
+     * Until then, ImGui creates no context, no font atlas and no GL resources.
+     * Call it if the plugin uses ImGui directly, e.g. only handles {@code OnImGuiInitializeEvent}.
+     */
+    void ensureInitialized();
+
+    /**
+     * Checks if ImGui is initialized and frames are rendered.
+     *
+     * @return {@code true} if ImGui is initialized, {@code false} otherwise.
+     */
+    boolean isInitialized();
+
+    /**
+     * Retrieves the store that persists the state of the widgets of a plugin in its config folder.
+     * Bind a widget to it with {@link ImGuiWidget#bindState(WidgetStateStore, String)}.
+     *
+     * @param plugin the plugin that owns the widgets.
+     * @return the {@link WidgetStateStore} of the plugin
+     */
+    WidgetStateStore getWidgetStateStore(Plugin plugin);
+
+    /**
+     * Retrieves the frame budget, which exposes the time spent on ImGui per frame, the budget usage and the throttling decisions.
+     *
+     * @return the {@link FrameBudget}
+     */
+    FrameBudget getFrameBudget();
 }
\ No newline at end of file
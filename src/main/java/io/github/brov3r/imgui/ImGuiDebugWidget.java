@@ -0,0 +1,115 @@
+package io.github.brov3r.imgui;
+
+import imgui.ImGui;
+import imgui.flag.ImGuiCond;
+import imgui.flag.ImGuiTableFlags;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Built-in widget that displays the update and render durations of all widgets.
+ * The table is refreshed a few times per second to keep the values readable and the widget cheap.
+ */
+public class ImGuiDebugWidget extends ImGuiWidget {
+    /**
+     * Column headers of the profile table.
+     */
+    private static final String[] COLUMNS = {"Widget", "Update p50", "p95", "p99", "max", "Render p50", "p95", "p99", "max"};
+
+    /**
+     * Formatted table rows, rebuilt by {@link #update()}.
+     */
+    private final List<String[]> rows = new ArrayList<>();
+
+    /**
+     * Summary line with the frame counters, rebuilt by {@link #update()}.
+     */
+    private String summary = "";
+
+    /**
+     * Creates the debug widget, refreshed 4 times per second.
+     */
+    public ImGuiDebugWidget() {
+        setUpdateRate(4);
+    }
+
+    /**
+     * Collects the profiles of all registered widgets into formatted rows.
+     */
+    @Override
+    public void update() {
+        rows.clear();
+
+        for (ImGuiWidget widget : ImGuiManager.getWidgets()) {
+            WidgetProfile profile = widget.getProfile();
+            FrameTimeHistogram update = profile.getUpdate();
+            FrameTimeHistogram render = profile.getRender();
+
+            rows.add(new String[]{
+                    getWidgetName(widget),
+                    formatMicros(update.getP50()), formatMicros(update.getP95()), formatMicros(update.getP99()), formatMicros(update.getMax()),
+                    formatMicros(render.getP50()), formatMicros(render.getP95()), formatMicros(render.getP99()), formatMicros(render.getMax())
+            });
+        }
+
+        FrameBudget budget = ImGuiManager.getFrameBudget();
+        summary = String.format("Widgets: %d, rebuilt frames: %d, replayed frames: %d (durations in microseconds)%n"
+                        + "Frame time: %.2f ms of %.2f ms budget, frames over budget: %d, throttled widgets: %d, deferred updates: %d, throttled replays: %d",
+                rows.size(), ImGuiManager.getRebuiltFrames(), ImGuiManager.getReplayedFrames(),
+                budget.getAverage(), budget.getBudget(), budget.getFramesOverBudget(), budget.getThrottledWidgets(), budget.getDeferredUpdates(), budget.getReplayedFrames());
+        markDirty();
+    }
+
+    /**
+     * Renders the profile table.
+     */
+    @Override
+    public void render() {
+        ImGui.setNextWindowSize(720, 300, ImGuiCond.FirstUseEver);
+
+        if (ImGui.begin("ImGuiAPI Profiler")) {
+            ImGui.text(summary);
+
+            if (ImGui.beginTable("##widgetProfiles", COLUMNS.length, ImGuiTableFlags.Borders | ImGuiTableFlags.RowBg | ImGuiTableFlags.Resizable)) {
+                for (String column : COLUMNS) {
+                    ImGui.tableSetupColumn(column);
+                }
+                ImGui.tableHeadersRow();
+
+                for (String[] row : rows) {
+                    ImGui.tableNextRow();
+                    for (String cell : row) {
+                        ImGui.tableNextColumn();
+                        ImGui.text(cell);
+                    }
+                }
+
+                ImGui.endTable();
+            }
+        }
+
+        ImGui.end();
+    }
+
+    /**
+     * Getting a readable name of a widget
+     *
+     * @param widget the widget.
+     * @return simple class name, or the full name for anonymous classes
+     */
+    private static String getWidgetName(ImGuiWidget widget) {
+        String name = widget.getClass().getSimpleName();
+        return name.isEmpty() ? widget.getClass().getName() : name;
+    }
+
+    /**
+     * Formats a duration in microseconds.
+     *
+     * @param nanos the duration in nanoseconds.
+     * @return formatted duration
+     */
+    private static String formatMicros(long nanos) {
+        return String.format("%.1f", nanos / 1000.0);
+    }
+}
@@ -1,19 +1,30 @@
 package io.github.brov3r.imgui;
 
 import com.avrix.Launcher;
+import imgui.ImDrawData;
 import imgui.ImFont;
+import imgui.ImFontAtlas;
 import imgui.ImFontConfig;
-import imgui.ImFontGlyphRangesBuilder;
 import imgui.ImGuiIO;
+import zombie.core.Core;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URISyntaxException;
-import java.net.URL;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * A utility class for managing ImGui fonts, including loading and creating fonts from various sources.
@@ -21,41 +32,694 @@ import java.nio.file.StandardCopyOption;
 public class ImGuiFont {
 
     /**
-     * Loads the default fonts and additional custom fonts, including Cyrillic, Japanese, and FontAwesome icons.
+     * Name of the folder in the plugin config folder that holds the font atlas cache.
+     */
+    private static final String ATLAS_CACHE_FOLDER = "font-cache";
+
+    /**
+     * Name of the file in the plugin config folder that holds the recorded glyph usage.
+     */
+    private static final String GLYPH_USAGE_FILE = "glyph-usage.bin";
+
+    /**
+     * Size of the default fonts in pixels.
+     */
+    private static final int DEFAULT_FONT_SIZE = 14;
+
+    /**
+     * Name of the default font that holds the icons. It only receives the icon ranges, the other default fonts receive the text ranges.
+     */
+    private static final String ICON_FONT = "FontAwesome-14";
+
+    /**
+     * Default fonts shipped in the core JAR file: font name, family and path inside the JAR.
+     */
+    private static final String[][] DEFAULT_FONTS = {
+            {"Montserrat-Regular-14", "Montserrat", "media/fonts/Montserrat-Regular.ttf"},
+            {"Arial-Regular-14", "Arial", "media/fonts/Arial-Regular.ttf"},
+            {"Roboto-Regular-14", "Roboto", "media/fonts/Roboto-Regular.ttf"},
+            {ICON_FONT, "FontAwesome", "media/fonts/FontAwesome.ttf"}
+    };
+
+    /**
+     * Maximum number of font family sizes kept in the atlas. The least recently used sizes are evicted beyond it.
+     */
+    private static final int MAX_FAMILY_SIZES = 8;
+
+    /**
+     * Number of frames after which an unused font family size is evicted, and the interval of the check.
+     */
+    private static final int IDLE_FRAMES = 3600, EVICTION_INTERVAL = 600;
+
+    /**
+     * Number of frames a font family size must be unused before it can be evicted to stay within {@value #MAX_FAMILY_SIZES} sizes.
+     * Sizes in use are never evicted; the limit is exceeded instead.
+     */
+    private static final int MIN_UNUSED_FRAMES = 300;
+
+    /**
+     * Screen width at which font family sizes are rasterized at their nominal size.
+     */
+    private static final int REFERENCE_SCREEN_WIDTH = 1920;
+
+    /**
+     * Decides which glyph scripts are baked into the atlas.
+     */
+    private static final GlyphRangePolicy glyphRangePolicy = new GlyphRangePolicy();
+
+    /**
+     * The default fonts in atlas order, without glyph ranges. The ranges are chosen on every atlas build.
+     */
+    private static final List<FontSpec> defaultFonts = new ArrayList<>();
+
+    /**
+     * Registered font families by lower-case family name. The specs hold the font data, sizes are added on demand.
+     */
+    private static final Map<String, FontSpec> fontFamilies = new ConcurrentHashMap<>();
+
+    /**
+     * Sizes of font families that are baked into the atlas, in the order they were requested.
+     */
+    private static final Map<String, FamilySize> familySizes = new LinkedHashMap<>();
+
+    /**
+     * Scale of the font family sizes, derived from the screen width, and the screen width it was computed for.
+     */
+    private static volatile float displayScale = 1f;
+    private static int screenWidth = -1;
+
+    /**
+     * Fonts created through {@code createFont} by name, in atlas order. They are added to the atlas after the default fonts.
+     * Creating a font under an existing name replaces it; creating an identical font again does not rebuild the atlas.
+     */
+    private static final Map<String, FontSpec> customFonts = new LinkedHashMap<>();
+
+    /**
+     * Rasterizes requested atlases in the background, so the render thread only swaps in the result.
+     */
+    private static final ExecutorService atlasExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ImGuiAPI-FontAtlas");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Reads font data in parallel ahead of atlas construction, so the I/O overlaps with the startup of the game.
+     */
+    private static final ExecutorService fontLoadExecutor = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)), runnable -> {
+                Thread thread = new Thread(runnable, "ImGuiAPI-FontLoader");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * Font data being read in the background, by the key of the font source. Entries are removed when the data is taken.
+     */
+    private static final Map<String, CompletableFuture<byte[]>> fontLoads = new ConcurrentHashMap<>();
+
+    /**
+     * Shares the data of font files between the fonts created from them.
+     */
+    private static final FontDataCache fontDataCache = new FontDataCache();
+
+    /**
+     * The atlas being baked in the background, or {@code null} if no rebuild is in progress.
+     */
+    private static CompletableFuture<PendingAtlas> pendingAtlas;
+
+    /**
+     * Records the glyphs drawn by the default fonts, or {@code null} if the glyph usage profile is disabled.
+     */
+    private static GlyphUsageTracker glyphUsage;
+
+    /**
+     * The built-in ImGui font of the current atlas.
+     */
+    private static ImFont baseFont;
+
+    /**
+     * Indicates whether the atlas has to be rebuilt, i.e. glyph scripts or fonts were requested since the last rebuild started.
+     */
+    private static volatile boolean rebuildRequested = false;
+
+    /**
+     * Fonts removed from the manager by name, e.g. evicted family sizes.
+     * Widgets may still hold them, so they are re-pointed to the built-in font whenever the atlas is replaced,
+     * and the object is registered again if the font is added back.
+     */
+    private static final Map<String, ImFont> retiredFonts = new ConcurrentHashMap<>();
+
+    /**
+     * Indicates whether more than {@value #MAX_FAMILY_SIZES} family sizes are in use and this was logged.
+     */
+    private static boolean familySizeLimitExceeded = false;
+
+    /**
+     * Starts reading the default fonts on background threads, so that {@link #loadDefaultFonts()} on the render context
+     * only adds the already loaded data to the atlas.
+     */
+    public static void preloadDefaultFonts() {
+        long start = System.nanoTime();
+        JarFileCache jarFiles = new JarFileCache();
+        try {
+            String coreJarPath = getCoreJarPath();
+            CompletableFuture<?>[] loads = new CompletableFuture<?>[DEFAULT_FONTS.length];
+            for (int i = 0; i < DEFAULT_FONTS.length; i++) {
+                loads[i] = preloadFont(FontSource.jar(coreJarPath, DEFAULT_FONTS[i][2]), jarFiles);
+            }
+
+            CompletableFuture.allOf(loads).whenComplete((result, error) -> {
+                jarFiles.close();
+                if (error == null) {
+                    System.out.printf("[#] Preloaded %d default fonts in %d ms%n", loads.length, (System.nanoTime() - start) / 1_000_000);
+                }
+            });
+        } catch (URISyntaxException e) {
+            jarFiles.close();
+            System.out.println("[!] Failed to preload fonts: Invalid URI - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts reading a font on a background thread. A later {@link #createFont} or {@link #registerFontFamily}
+     * with the same source takes the loaded data instead of reading it on the render thread.
+     *
+     * @param source The location of the font data.
+     * @return A future that completes with the font data.
+     */
+    public static CompletableFuture<byte[]> preloadFont(FontSource source) {
+        JarFileCache jarFiles = new JarFileCache();
+        CompletableFuture<byte[]> load = preloadFont(source, jarFiles);
+        load.whenComplete((data, error) -> jarFiles.close());
+        return load;
+    }
+
+    /**
+     * Starts reading a font on a background thread, reusing archives that are already open.
+     *
+     * @param source   The location of the font data.
+     * @param jarFiles The open archives, which must stay open until the font is read.
+     * @return A future that completes with the font data.
+     */
+    private static CompletableFuture<byte[]> preloadFont(FontSource source, JarFileCache jarFiles) {
+        return fontLoads.computeIfAbsent(source.getKey(), key -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return source.read(jarFiles);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, fontLoadExecutor));
+    }
+
+    /**
+     * Loads the default fonts and additional custom fonts, including FontAwesome icons.
      * Fonts are loaded from the JAR file that contains the application.
+     * The text fonts only receive the glyph ranges of the game language; other scripts are added on request
+     * by {@link #requestGlyphScript(GlyphScript)} and {@link #requestGlyphs(CharSequence)}.
+     * The rasterized atlas is cached in the plugin config folder and restored on the next start without rasterizing the fonts again.
      */
     public static void loadDefaultFonts() {
         ImGuiIO io = ImGuiManager.getIo();
 
-        // Load default ImGui font
-        io.getFonts().addFontDefault();
+        // Load custom fonts from the JAR file, opening it once for all fonts that were not preloaded
+        for (FontSpec font : defaultFonts) {
+            fontDataCache.release(font.data);
+        }
+        defaultFonts.clear();
+        try (JarFileCache jarFiles = new JarFileCache()) {
+            String coreJarPath = getCoreJarPath();
+            for (String[] font : DEFAULT_FONTS) {
+                addDefaultFont(font[0], font[1], acquireFontData(FontSource.jar(coreJarPath, font[2]), jarFiles));
+            }
+        } catch (URISyntaxException e) {
+            System.out.println("[!] Failed to load custom fonts: Invalid URI - " + e.getMessage());
+        } catch (Exception e) {
+            System.out.println("[!] Failed to load custom fonts: " + e.getMessage());
+        }
+
+        for (FontSpec font : defaultFonts) {
+            if (!ICON_FONT.equals(font.name)) fontFamilies.put(font.family.toLowerCase(Locale.ROOT), font);
+        }
 
         // Configure font glyph ranges
-        final ImFontGlyphRangesBuilder rangesBuilder = new ImFontGlyphRangesBuilder();
-        rangesBuilder.addRanges(io.getFonts().getGlyphRangesDefault());
-        rangesBuilder.addRanges(io.getFonts().getGlyphRangesCyrillic());
-        rangesBuilder.addRanges(io.getFonts().getGlyphRangesJapanese());
-        rangesBuilder.addRanges(FontAwesomeIcons._IconRange);
+        Main main = Main.getInstance();
+        if (main != null && Main.getConfig().getBoolean("glyphUsageProfile")) {
+            glyphUsage = new GlyphUsageTracker(main.getConfigFolder().toPath().resolve(GLYPH_USAGE_FILE), atlasExecutor);
+            glyphUsage.load();
+        } else {
+            glyphUsage = null;
+        }
+
+        glyphRangePolicy.reset();
+        glyphRangePolicy.applyPending();
+
+        rebuildRequested = false;
+        pendingAtlas = null;
+
+        buildAtlas(io.getFonts());
+
+        System.out.println("[#] ImGui - font data: " + fontDataCache);
+    }
+
+    /**
+     * Requests the glyphs of a script to be added to the font atlas.
+     * Requests are collected and applied together by one atlas rebuild in the background.
+     * Can be called from any thread.
+     *
+     * @param script the script to add.
+     */
+    public static void requestGlyphScript(GlyphScript script) {
+        if (glyphRangePolicy.request(script)) {
+            rebuildRequested = true;
+        }
+    }
+
+    /**
+     * Requests the scripts of all characters of a text to be added to the font atlas.
+     * Call it for text whose language is not known in advance, such as chat messages or player names.
+     * Can be called from any thread.
+     *
+     * @param text the text to be displayed.
+     */
+    public static void requestGlyphs(CharSequence text) {
+        if (glyphRangePolicy.request(text)) {
+            rebuildRequested = true;
+        }
+    }
+
+    /**
+     * Getting the glyph scripts baked into the font atlas
+     *
+     * @return the active scripts
+     */
+    public static Set<GlyphScript> getGlyphScripts() {
+        return glyphRangePolicy.getActiveScripts();
+    }
+
+    /**
+     * Registers a font family from a font file inside a JAR file.
+     * Sizes of the family are added to the atlas when a {@link FontHandle} of the family is first used.
+     *
+     * @param family           the name of the family, case-insensitive.
+     * @param jarFilePath      the path to the JAR file containing the font.
+     * @param internalFilePath the path to the font file inside the JAR.
+     * @return {@code true} if the font data was loaded, {@code false} otherwise.
+     */
+    public static boolean registerFontFamily(String family, String jarFilePath, String internalFilePath) {
+        return registerFontFamily(family, FontSource.jar(jarFilePath, internalFilePath));
+    }
+
+    /**
+     * Registers a font family from a font file on the filesystem.
+     * Sizes of the family are added to the atlas when a {@link FontHandle} of the family is first used.
+     *
+     * @param family   the name of the family, case-insensitive.
+     * @param fontPath the path to the font file.
+     * @return {@code true} if the font data was loaded, {@code false} otherwise.
+     */
+    public static boolean registerFontFamily(String family, Path fontPath) {
+        return registerFontFamily(family, FontSource.file(fontPath));
+    }
+
+    /**
+     * Registers a font family from a font source, such as a classpath resource of a plugin.
+     * Sizes of the family are added to the atlas when a {@link FontHandle} of the family is first used.
+     *
+     * @param family the name of the family, case-insensitive.
+     * @param source the location of the font data.
+     * @return {@code true} if the font data was loaded, {@code false} otherwise.
+     */
+    public static boolean registerFontFamily(String family, FontSource source) {
+        ImGuiManager.ensureInitialized();
+
+        try (JarFileCache jarFiles = new JarFileCache()) {
+            return registerFontFamily(family, acquireFontData(source, jarFiles));
+        }
+    }
+
+    /**
+     * Registers a font family.
+     *
+     * @param family   the name of the family.
+     * @param fontData the font data acquired from the font data cache, or {@code null} if loading failed.
+     * @return {@code true} if the family was registered, {@code false} otherwise.
+     */
+    private static boolean registerFontFamily(String family, byte[] fontData) {
+        if (fontData == null) return false;
+
+        FontSpec previous = fontFamilies.put(family.toLowerCase(Locale.ROOT), new FontSpec(family, family, fontData, DEFAULT_FONT_SIZE, null, null));
+
+        // The data of default families is held by the default fonts
+        if (previous != null && defaultFonts.stream().noneMatch(font -> font == previous)) {
+            fontDataCache.release(previous.data);
+        }
+
+        // Handles of the family may have been requested before the family was known
+        ImGuiManager.resetFontRequests();
+        return true;
+    }
+
+    /**
+     * Getting the scale of the font family sizes
+     *
+     * @return the ratio of the screen width to {@value #REFERENCE_SCREEN_WIDTH} pixels in steps of 0.25, at least 1
+     */
+    public static float getDisplayScale() {
+        return displayScale;
+    }
+
+    /**
+     * Requests a size of a font family to be added to the atlas by the next rebuild.
+     * Called when a handle of a missing family size is used; does nothing if the family is unknown or the size is already requested.
+     *
+     * @param family the family of the font, case-insensitive.
+     * @param size   the size of the font in pixels.
+     */
+    static void requestFontSize(String family, int size) {
+        FontSpec font = fontFamilies.get(family.toLowerCase(Locale.ROOT));
+        if (font == null) return;
+
+        String key = font.family.toLowerCase(Locale.ROOT) + '/' + size;
+        synchronized (familySizes) {
+            if (familySizes.containsKey(key)) return;
+
+            FontHandle handle = ImGuiManager.getFontHandle(family, size);
+            familySizes.put(key, new FamilySize(font.family, size, handle));
+            ImGuiManager.touchFont(handle);
+        }
+
+        rebuildRequested = true;
+    }
+
+    /**
+     * Requests a rebuild with all family sizes rasterized at the new scale if the screen width changed.
+     */
+    private static void updateDisplayScale() {
+        int width = Core.getInstance().getScreenWidth();
+        if (width == screenWidth) return;
+
+        screenWidth = width;
+        float scale = Math.max(1f, Math.round(width * 4f / REFERENCE_SCREEN_WIDTH) / 4f);
+        if (scale == displayScale) return;
+
+        displayScale = scale;
+        synchronized (familySizes) {
+            if (!familySizes.isEmpty()) rebuildRequested = true;
+        }
+    }
+
+    /**
+     * Evicts the family sizes that were not used for {@value #IDLE_FRAMES} frames,
+     * and the least recently used ones while more than {@value #MAX_FAMILY_SIZES} sizes are baked.
+     * Sizes used within the last {@value #MIN_UNUSED_FRAMES} frames are kept even above the limit,
+     * since evicting them would only request them again and rebuild the atlas in a loop.
+     */
+    private static void evictFontSizes() {
+        int frame = ImGuiManager.getFontFrame();
+        if (frame % EVICTION_INTERVAL != 0) return;
+
+        synchronized (familySizes) {
+            if (familySizes.isEmpty()) return;
+
+            List<FamilySize> sizes = new ArrayList<>(familySizes.values());
+            sizes.sort(Comparator.comparingInt(size -> ImGuiManager.getFontLastUsed(size.handle)));
+
+            int remaining = sizes.size();
+            for (FamilySize size : sizes) {
+                int unused = frame - ImGuiManager.getFontLastUsed(size.handle);
+                boolean evictable = unused > IDLE_FRAMES || (remaining > MAX_FAMILY_SIZES && unused > MIN_UNUSED_FRAMES);
+                if (!evictable) break;
+
+                familySizes.remove(size.family.toLowerCase(Locale.ROOT) + '/' + size.size);
+                ImFont removed = ImGuiManager.removeFont(size.getName(), size.family, size.size);
+                if (removed != null) retiredFonts.put(size.getName(), removed);
+                remaining--;
+                rebuildRequested = true;
+            }
+
+            if (remaining > MAX_FAMILY_SIZES) {
+                if (!familySizeLimitExceeded) {
+                    System.out.printf("[!] ImGui - %d font family sizes are in use, more than the limit of %d; none of them is evicted%n", remaining, MAX_FAMILY_SIZES);
+                    familySizeLimitExceeded = true;
+                }
+            } else {
+                familySizeLimitExceeded = false;
+            }
+        }
+    }
+
+    /**
+     * Advances the background rebuild of the font atlas. Called on the render thread between frames.
+     * When glyph scripts or fonts were requested, the fonts are baked on a background thread; once the baked atlas is ready,
+     * it replaces the atlas of the context, which only packs the cached glyphs without rasterizing them.
+     *
+     * @return {@code true} if the atlas was replaced and the font texture has to be uploaded again, {@code false} otherwise.
+     */
+    static boolean applyAtlasChanges() {
+        if (pendingAtlas == null) {
+            updateDisplayScale();
+            evictFontSizes();
+        }
+
+        if (pendingAtlas != null) {
+            if (!pendingAtlas.isDone()) return false;
+
+            CompletableFuture<PendingAtlas> done = pendingAtlas;
+            pendingAtlas = null;
+
+            try {
+                swapAtlas(done.join());
+                return true;
+            } catch (Exception e) {
+                System.out.printf("[!] Failed to rebuild font atlas: %s%n", e.getMessage());
+                return false;
+            }
+        }
+
+        if (!rebuildRequested) return false;
+
+        rebuildRequested = false;
+        glyphRangePolicy.applyPending();
+
+        List<FontSpec> specs = collectSpecs(ImGuiManager.getIo().getFonts());
+        Path cacheFolder = getAtlasCacheFolder();
+        pendingAtlas = CompletableFuture.supplyAsync(() -> new PendingAtlas(specs, FontAtlasCache.bake(specs, cacheFolder)), atlasExecutor);
+
+        return false;
+    }
+
+    /**
+     * Bakes the fonts and glyphs requested since the atlas was built, before the font texture is uploaded for the first time.
+     * The fonts are rasterized on the atlas thread like any other rebuild; the render thread only swaps in the result.
+     * Called on the render thread by the GL phase of the initialization until the atlas is ready, so that fonts created
+     * before the first frame, including in the "OnImGuiInitialize" event, are drawn from the first frame.
+     *
+     * @return {@code true} if no rebuild is pending and the atlas can be uploaded, {@code false} otherwise.
+     */
+    static boolean prepareInitialAtlas() {
+        if (pendingAtlas == null && !rebuildRequested) return true;
+
+        applyAtlasChanges();
+        return pendingAtlas == null && !rebuildRequested;
+    }
+
+    /**
+     * Replaces the atlas of the context with a baked atlas and re-points the registered fonts.
+     *
+     * @param atlas the baked atlas and the fonts it was baked from.
+     */
+    private static void swapAtlas(PendingAtlas atlas) {
+        ImGuiIO io = ImGuiManager.getIo();
+        String defaultFontName = findFontName(io.getFontDefault());
+
+        // Clearing the atlas frees all native fonts; fonts that are not part of the new atlas must not keep pointing to them
+        repointDroppedFonts(atlas.specs, 0);
+        io.getFonts().clear();
+        registerFonts(atlas.specs, atlas.baked.restore(io.getFonts(), atlas.specs));
+
+        if (defaultFontName != null) {
+            io.setFontDefault(ImGuiManager.getFont(defaultFontName));
+        }
+    }
+
+    /**
+     * Adds the default and custom fonts to an empty atlas and registers them.
+     *
+     * @param atlas the empty atlas.
+     */
+    private static void buildAtlas(ImFontAtlas atlas) {
+        List<FontSpec> specs = collectSpecs(atlas);
+
+        // Build the atlas, restoring it from the cache when the fonts did not change
+        registerFonts(specs, FontAtlasCache.build(atlas, specs, getAtlasCacheFolder(), atlasExecutor));
+    }
+
+    /**
+     * Collects the specs of the default and custom fonts with the glyph ranges of the active scripts.
+     * With the glyph usage profile, the default fonts only receive the glyphs drawn in previous sessions and a safety margin.
+     * Each requested family size is added as a separate font, scaled by the display scale and merged with the icons.
+     *
+     * @param atlas the atlas providing the built-in glyph ranges.
+     * @return the font specs in atlas order
+     */
+    private static List<FontSpec> collectSpecs(ImFontAtlas atlas) {
+        List<FontSpec> specs = new ArrayList<>();
 
         final ImFontConfig fontConfig = new ImFontConfig();
         fontConfig.setMergeMode(true);
 
-        final short[] glyphRanges = rangesBuilder.buildRanges();
+        final short[] textRanges = glyphRangePolicy.getTextRanges(atlas);
+        final short[] iconRanges = GlyphScript.ICONS.getGlyphRanges(atlas);
 
-        // Load custom fonts from the JAR file
-        try {
-            File coreJarFile = new File(Launcher.class.getProtectionDomain().getCodeSource().getLocation().toURI());
-            createFont("Montserrat-Regular-14", coreJarFile.getPath(), "media/fonts/Montserrat-Regular.ttf", 14, fontConfig, glyphRanges);
-            createFont("Arial-Regular-14", coreJarFile.getPath(), "media/fonts/Arial-Regular.ttf", 14, fontConfig, glyphRanges);
-            createFont("Roboto-Regular-14", coreJarFile.getPath(), "media/fonts/Roboto-Regular.ttf", 14, fontConfig, glyphRanges);
-            createFont("FontAwesome-14", coreJarFile.getPath(), "media/fonts/FontAwesome.ttf", 14, fontConfig, glyphRanges);
-        } catch (URISyntaxException e) {
-            System.out.println("[!] Failed to load custom fonts: Invalid URI - " + e.getMessage());
-        } catch (Exception e) {
-            System.out.println("[!] Failed to load custom fonts: " + e.getMessage());
+        for (FontSpec font : defaultFonts) {
+            short[] glyphRanges = ICON_FONT.equals(font.name) ? iconRanges : textRanges;
+            if (glyphUsage != null) {
+                glyphRanges = glyphUsage.filter(font.name, glyphRanges, glyphRangePolicy.getRequestedScripts(), atlas);
+            }
+
+            specs.add(new FontSpec(font.name, font.family, font.data, font.size, fontConfig, glyphRanges));
+        }
+
+        synchronized (customFonts) {
+            specs.addAll(customFonts.values());
+        }
+
+        final ImFontConfig familyConfig = new ImFontConfig();
+        final FontSpec iconFont = defaultFonts.stream().filter(font -> ICON_FONT.equals(font.name)).findFirst().orElse(null);
+
+        synchronized (familySizes) {
+            for (FamilySize size : familySizes.values()) {
+                FontSpec font = fontFamilies.get(size.family.toLowerCase(Locale.ROOT));
+                int pixelSize = Math.round(size.size * displayScale);
+
+                specs.add(new FontSpec(size.getName(), font.family, font.data, pixelSize, size.size, familyConfig, textRanges));
+                if (iconFont != null) {
+                    specs.add(new FontSpec(size.getName(), font.family, iconFont.data, pixelSize, size.size, fontConfig, iconRanges));
+                }
+            }
         }
 
         fontConfig.destroy();
+        familyConfig.destroy();
+
+        return specs;
+    }
+
+    /**
+     * Registers the fonts of a built atlas.
+     * Fonts that are already registered keep their {@link ImFont} object, which is re-pointed to the new font,
+     * so references held by widgets stay valid across rebuilds.
+     *
+     * @param specs the font specs in atlas order.
+     * @param fonts the built-in font followed by the font of each spec.
+     */
+    private static void registerFonts(List<FontSpec> specs, List<ImFont> fonts) {
+        baseFont = fonts.get(0);
+        ImGuiManager.setFallbackFont(baseFont);
+
+        for (int i = 0; i < specs.size(); i++) {
+            registerFont(specs.get(i), fonts.get(i + 1));
+        }
+        repointDroppedFonts(specs, baseFont.ptr);
+
+        if (glyphUsage != null) {
+            glyphUsage.index(ImGuiManager.getIo().getFonts(), specs, fonts);
+        }
+    }
+
+    /**
+     * Records the glyphs drawn by a frame if the glyph usage profile is enabled.
+     * Called on the render thread after every rebuilt frame.
+     *
+     * @param drawData the draw data of the frame.
+     */
+    static void trackGlyphUsage(ImDrawData drawData) {
+        if (glyphUsage != null) {
+            glyphUsage.sample(drawData);
+        }
+    }
+
+    /**
+     * Registers a font under its name and family, re-pointing the {@link ImFont} object already registered under the name.
+     *
+     * @param spec the spec of the font.
+     * @param font the font of the current atlas.
+     */
+    private static void registerFont(FontSpec spec, ImFont font) {
+        ImFont registered = ImGuiManager.getFont(spec.name);
+
+        if (registered != null) {
+            registered.ptr = font.ptr;
+            return;
+        }
+
+        // Reuse the object of a font that was removed before, so widgets holding it draw with the font again
+        ImFont retired = retiredFonts.remove(spec.name);
+        if (retired != null) {
+            retired.ptr = font.ptr;
+            font = retired;
+        }
+        ImGuiManager.addFont(spec.name, spec.family, spec.familySize, font);
+    }
+
+    /**
+     * Re-points the fonts that are not part of an atlas: registered fonts without a spec, such as placeholders of fonts
+     * created after the atlas was collected, and removed fonts still held by widgets.
+     *
+     * @param specs the font specs of the atlas.
+     * @param ptr   the pointer to assign, the built-in font of the atlas or {@code 0} while no atlas exists.
+     */
+    private static void repointDroppedFonts(List<FontSpec> specs, long ptr) {
+        Set<String> names = new HashSet<>();
+        for (FontSpec spec : specs) {
+            names.add(spec.name);
+        }
+
+        for (Map.Entry<String, ImFont> entry : ImGuiManager.getFonts().entrySet()) {
+            if (!names.contains(entry.getKey())) entry.getValue().ptr = ptr;
+        }
+        for (ImFont font : retiredFonts.values()) {
+            font.ptr = ptr;
+        }
+    }
+
+    /**
+     * Retrieves the name a font is registered under.
+     *
+     * @param font the font, may be {@code null}.
+     * @return the name of the font, or {@code null} if it is not registered
+     */
+    private static String findFontName(ImFont font) {
+        if (font == null || font.ptr == 0) return null;
+
+        for (Map.Entry<String, ImFont> entry : ImGuiManager.getFonts().entrySet()) {
+            if (entry.getValue().ptr == font.ptr) return entry.getKey();
+        }
+        return null;
+    }
+
+    /**
+     * Adds a default font if its data was loaded.
+     *
+     * @param fontName the name to assign to the font.
+     * @param family   the family of the font.
+     * @param fontData the font data, or {@code null} if loading failed.
+     */
+    private static void addDefaultFont(String fontName, String family, byte[] fontData) {
+        if (fontData == null) return;
+
+        defaultFonts.add(new FontSpec(fontName, family, fontData, DEFAULT_FONT_SIZE, null, null));
+    }
+
+    /**
+     * Getting the folder of the font atlas cache
+     *
+     * @return the cache folder, or {@code null} if the plugin is not loaded (e.g. in benchmarks)
+     */
+    private static Path getAtlasCacheFolder() {
+        Main main = Main.getInstance();
+        return main != null ? main.getConfigFolder().toPath().resolve(ATLAS_CACHE_FOLDER) : null;
     }
 
     /**
@@ -70,7 +734,7 @@ public class ImGuiFont {
      * @return The created ImFont object, or null if creation failed.
      */
     public static ImFont createFont(String fontName, String jarFilePath, String internalFilePath, int fontSize, ImFontConfig fontConfig, short[] glyphRanges) {
-        return createFontInternal(fontName, () -> loadFontBytes(jarFilePath, internalFilePath), fontSize, fontConfig, glyphRanges);
+        return createFontInternal(fontName, FontSource.jar(jarFilePath, internalFilePath), fontSize, fontConfig, glyphRanges);
     }
 
     /**
@@ -83,7 +747,7 @@ public class ImGuiFont {
      * @return The created ImFont object, or null if creation failed.
      */
     public static ImFont createFont(String fontName, String jarFilePath, String internalFilePath, int fontSize) {
-        return createFontInternal(fontName, () -> loadFontBytes(jarFilePath, internalFilePath), fontSize, null, null);
+        return createFontInternal(fontName, FontSource.jar(jarFilePath, internalFilePath), fontSize, null, null);
     }
 
     /**
@@ -95,30 +759,69 @@ public class ImGuiFont {
      * @return The created ImFont object, or null if creation failed.
      */
     public static ImFont createFont(String fontName, Path fontPath, int fontSize) {
-        return createFontInternal(fontName, () -> loadFontBytes(fontPath), fontSize, null, null);
+        return createFontInternal(fontName, FontSource.file(fontPath), fontSize, null, null);
+    }
+
+    /**
+     * Creates an ImFont from a font source, such as a classpath resource of a plugin.
+     *
+     * @param fontName    The name to assign to the font.
+     * @param source      The location of the font data.
+     * @param fontSize    The size of the font.
+     * @param fontConfig  Configuration options for the font (e.g., merge mode), or null for default configuration.
+     * @param glyphRanges Glyph ranges to include in the font, or null for default ranges.
+     * @return The created ImFont object, or null if creation failed.
+     */
+    public static ImFont createFont(String fontName, FontSource source, int fontSize, ImFontConfig fontConfig, short[] glyphRanges) {
+        return createFontInternal(fontName, source, fontSize, fontConfig, glyphRanges);
     }
 
     /**
-     * Internal method to create an ImFont using a FontDataLoader to load the font data.
+     * Internal method to create an ImFont from a font source.
+     * A font created before the first frame is baked in the background before the font texture is uploaded for the first time,
+     * so it is available from the first frame.
+     * A font created later is rasterized in the background and added to the atlas at a frame boundary. Until then, the returned
+     * object points to the built-in font; it is re-pointed to the created font when the rebuilt atlas is swapped in.
      *
      * @param fontName    The name to assign to the font.
-     * @param loader      A FontDataLoader that provides the font data as a byte array.
+     * @param source      The location of the font data.
      * @param fontSize    The size of the font.
      * @param fontConfig  Configuration options for the font (e.g., merge mode), or null for default configuration.
      * @param glyphRanges Glyph ranges to include in the font, or null for default ranges.
      * @return The created ImFont object, or null if creation failed.
      */
-    private static ImFont createFontInternal(String fontName, FontDataLoader loader, int fontSize, ImFontConfig fontConfig, short[] glyphRanges) {
+    private static ImFont createFontInternal(String fontName, FontSource source, int fontSize, ImFontConfig fontConfig, short[] glyphRanges) {
+        ImGuiManager.ensureInitialized();
+
         ImFont font = null;
         try {
-            byte[] fontData = loader.load();
+            byte[] fontData;
+            try (JarFileCache jarFiles = new JarFileCache()) {
+                fontData = acquireFontData(source, jarFiles);
+            }
+
             if (fontData != null) {
-                if (fontConfig != null && glyphRanges != null) {
-                    font = ImGuiManager.getIo().getFonts().addFontFromMemoryTTF(fontData, fontSize, fontConfig, glyphRanges);
-                } else {
-                    font = ImGuiManager.getIo().getFonts().addFontFromMemoryTTF(fontData, fontSize);
+                FontSpec spec = new FontSpec(fontName, fontName, fontData, fontSize, fontConfig, glyphRanges);
+                FontSpec previous;
+                synchronized (customFonts) {
+                    previous = customFonts.put(fontName, spec);
+                }
+
+                // Each font holds one reference to its data, the replaced font gives its reference back
+                boolean changed = !spec.equals(previous);
+                if (previous != null) {
+                    fontDataCache.release(previous.data);
+                }
+
+                font = ImGuiManager.getFont(fontName);
+                if (font == null) {
+                    font = new ImFont(baseFont != null ? baseFont.ptr : 0);
+                    ImGuiManager.addFont(fontName, fontName, fontSize, font);
+                }
+
+                if (changed) {
+                    rebuildRequested = true;
                 }
-                ImGuiManager.addFont(fontName, font);
             }
         } catch (Exception e) {
             System.out.printf("[!] Failed to create font '%s': %s%n", fontName, e.getMessage());
@@ -134,19 +837,7 @@ public class ImGuiFont {
      * @return A byte array containing the font data, or null if loading failed.
      */
     public static byte[] loadFontBytes(String jarFilePath, String internalFilePath) {
-        byte[] font = null;
-        try {
-            URL jarUrl = new URL("jar:file:" + jarFilePath + "!/" + internalFilePath);
-            try (InputStream inputStream = jarUrl.openStream()) {
-                Path tempFontFile = Files.createTempFile("imgui_temp-font", ".ttf");
-                Files.copy(inputStream, tempFontFile, StandardCopyOption.REPLACE_EXISTING);
-                font = loadFontBytes(tempFontFile);
-                Files.delete(tempFontFile);
-            }
-        } catch (IOException e) {
-            System.out.printf("[!] File '%s' not found inside JAR file '%s'!%n", internalFilePath, jarFilePath);
-        }
-        return font;
+        return loadFontBytes(FontSource.jar(jarFilePath, internalFilePath));
     }
 
     /**
@@ -156,25 +847,108 @@ public class ImGuiFont {
      * @return A byte array containing the font data, or null if loading failed.
      */
     public static byte[] loadFontBytes(Path fontPath) {
+        return loadFontBytes(FontSource.file(fontPath));
+    }
+
+    /**
+     * Loads font data from a font source.
+     * The returned array is owned by the caller and is not shared with the fonts in the atlas.
+     *
+     * @param source The location of the font data.
+     * @return A byte array containing the font data, or null if loading failed.
+     */
+    public static byte[] loadFontBytes(FontSource source) {
+        try (JarFileCache jarFiles = new JarFileCache()) {
+            return readFontData(source, jarFiles);
+        } catch (IOException e) {
+            System.out.printf("[!] Failed to read font '%s': %s%n", source, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Acquires font data from the font data cache, so that fonts created from the same source share one buffer.
+     * The data must be released to the cache when the font that holds it is replaced.
+     *
+     * @param source   The location of the font data.
+     * @param jarFiles The open archives.
+     * @return The shared font data, or null if loading failed.
+     */
+    private static byte[] acquireFontData(FontSource source, JarFileCache jarFiles) {
         try {
-            return Files.readAllBytes(fontPath);
+            return fontDataCache.acquire(source, () -> readFontData(source, jarFiles));
         } catch (IOException e) {
-            System.out.printf("[!] Failed to read font file '%s': %s%n", fontPath, e.getMessage());
+            System.out.printf("[!] Failed to read font '%s': %s%n", source, e.getMessage());
             return null;
+        } finally {
+            // A preload of an already cached font is not needed anymore
+            fontLoads.remove(source.getKey());
+        }
+    }
+
+    /**
+     * Reads font data, taking it from a preload if one was started.
+     *
+     * @param source   The location of the font data.
+     * @param jarFiles The open archives.
+     * @return The font data.
+     * @throws IOException If the font can not be read.
+     */
+    private static byte[] readFontData(FontSource source, JarFileCache jarFiles) throws IOException {
+        CompletableFuture<byte[]> load = fontLoads.remove(source.getKey());
+        if (load == null) return source.read(jarFiles);
+
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof IOException cause ? cause : new IOException(e.getCause());
         }
     }
 
     /**
-     * A functional interface for loading font data as a byte array.
+     * Getting the path to the core JAR file that ships the default fonts
+     *
+     * @return path to the core JAR file
+     * @throws URISyntaxException if the location of the JAR file is not a valid URI.
+     */
+    private static String getCoreJarPath() throws URISyntaxException {
+        return new File(Launcher.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+    }
+
+    /**
+     * A size of a font family that is baked into the atlas.
      */
-    @FunctionalInterface
-    private interface FontDataLoader {
+    private static class FamilySize {
+        final String family;
+        final int size;
+        final FontHandle handle;
+
+        FamilySize(String family, int size, FontHandle handle) {
+            this.family = family;
+            this.size = size;
+            this.handle = handle;
+        }
+
         /**
-         * Loads font data.
+         * Getting the name the size is registered under
          *
-         * @return A byte array containing the font data.
-         * @throws Exception If an error occurs during font data loading.
+         * @return name of the font, e.g. {@code Roboto-18}
          */
-        byte[] load() throws Exception;
+        String getName() {
+            return family + "-" + size;
+        }
+    }
+
+    /**
+     * An atlas baked in the background together with the font specs it was baked from.
+     */
+    private static class PendingAtlas {
+        final List<FontSpec> specs;
+        final BakedAtlas baked;
+
+        PendingAtlas(List<FontSpec> specs, BakedAtlas baked) {
+            this.specs = specs;
+            this.baked = baked;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,95 @@
+package io.github.brov3r.imgui;
+
+import imgui.glfw.ImGuiImplGlfw;
+
+/**
+ * ImGui GLFW backend that reports input events to the {@link ImGuiManager}.
+ * Every callback is still forwarded to the default implementation, which also chains the game's own callbacks.
+ * Typed characters request the glyphs of their script, so text typed in any language is added to the font atlas.
+ */
+class ImGuiGlfwBackend extends ImGuiImplGlfw {
+    /**
+     * Handles a mouse button event.
+     *
+     * @param windowId the GLFW window handle.
+     * @param button   the mouse button.
+     * @param action   the button action.
+     * @param mods     the modifier keys.
+     */
+    @Override
+    public void mouseButtonCallback(long windowId, int button, int action, int mods) {
+        super.mouseButtonCallback(windowId, button, action, mods);
+        ImGuiManager.onInput();
+    }
+
+    /**
+     * Handles a scroll event.
+     *
+     * @param windowId the GLFW window handle.
+     * @param xOffset  the horizontal scroll offset.
+     * @param yOffset  the vertical scroll offset.
+     */
+    @Override
+    public void scrollCallback(long windowId, double xOffset, double yOffset) {
+        super.scrollCallback(windowId, xOffset, yOffset);
+        ImGuiManager.onInput();
+    }
+
+    /**
+     * Handles a keyboard key event.
+     *
+     * @param windowId the GLFW window handle.
+     * @param key      the keyboard key.
+     * @param scancode the system-specific scancode of the key.
+     * @param action   the key action.
+     * @param mods     the modifier keys.
+     */
+    @Override
+    public void keyCallback(long windowId, int key, int scancode, int action, int mods) {
+        super.keyCallback(windowId, key, scancode, action, mods);
+        ImGuiManager.onInput();
+    }
+
+    /**
+     * Handles a character input event.
+     * Requests the script of the character if it is not baked into the font atlas yet.
+     *
+     * @param windowId the GLFW window handle.
+     * @param c        the Unicode code point of the character.
+     */
+    @Override
+    public void charCallback(long windowId, int c) {
+        super.charCallback(windowId, c);
+
+        GlyphScript script = GlyphScript.of(c);
+        if (script != null) {
+            ImGuiFont.requestGlyphScript(script);
+        }
+
+        ImGuiManager.onInput();
+    }
+
+    /**
+     * Handles a window focus event.
+     *
+     * @param windowId the GLFW window handle.
+     * @param focused  {@code true} if the window gained focus, {@code false} otherwise.
+     */
+    @Override
+    public void windowFocusCallback(long windowId, boolean focused) {
+        super.windowFocusCallback(windowId, focused);
+        ImGuiManager.onInput();
+    }
+
+    /**
+     * Handles the cursor entering or leaving the window.
+     *
+     * @param windowId the GLFW window handle.
+     * @param entered  {@code true} if the cursor entered the window, {@code false} otherwise.
+     */
+    @Override
+    public void cursorEnterCallback(long windowId, boolean entered) {
+        super.cursorEnterCallback(windowId, entered);
+        ImGuiManager.onInput();
+    }
+}
@@ -0,0 +1,124 @@
+package io.github.brov3r.imgui;
+
+import imgui.ImGuiIO;
+import zombie.core.Core;
+import zombie.ui.UIFont;
+import zombie.ui.UITextBox2;
+
+/**
+ * Decides once per frame which input ImGui consumes and hides it from the game.
+ * <p>
+ * The decision is taken from ImGui's own capture flags, which cover every ImGui window, popup and tooltip,
+ * and is published as a single frame-stamped {@link InputCaptureState}, so the game thread never sees a partial decision.
+ * The game's mouse and keyboard queries are filtered by the {@code MousePatch} and {@code GameKeyboardPatch} patches,
+ * and a single focus proxy text box is focused while ImGui expects text input, so the game does not treat
+ * the typed characters as its own.
+ */
+class ImGuiInputRouter {
+    /**
+     * Capture decision of the last frame, published to the game thread.
+     */
+    private final InputCaptureState state = new InputCaptureState();
+
+    /**
+     * Number of the last evaluated frame. Only accessed on the render thread.
+     */
+    private long frame = 0;
+
+    /**
+     * Text box focused in the game while ImGui expects text input.
+     * Created on the render thread when it is first needed.
+     */
+    private UITextBox2 focusProxy;
+
+    /**
+     * Evaluates the capture flags of the current frame.
+     * Must be called on the render thread after the frame has been built.
+     *
+     * @param io the {@link ImGuiIO} of the ImGui context.
+     */
+    void update(ImGuiIO io) {
+        long flags = 0;
+        if (io.getWantCaptureMouse()) flags |= InputCaptureState.MOUSE;
+        if (io.getWantCaptureKeyboard()) flags |= InputCaptureState.KEYBOARD;
+        if (io.getWantTextInput()) flags |= InputCaptureState.TEXT_INPUT;
+
+        state.publish(++frame, flags);
+
+        updateFocusProxy((flags & InputCaptureState.TEXT_INPUT) != 0);
+    }
+
+    /**
+     * Releases all input back to the game.
+     * Called when no ImGui frames are built anymore.
+     */
+    void release() {
+        state.publish(++frame, 0);
+
+        updateFocusProxy(false);
+    }
+
+    /**
+     * Getting the capture decision of the last frame
+     *
+     * @return the published capture state
+     */
+    InputCaptureState getState() {
+        return state;
+    }
+
+    /**
+     * Checks if ImGui consumes the mouse input.
+     *
+     * @return {@code true} if mouse input must be hidden from the game, {@code false} otherwise.
+     */
+    boolean isMouseCapture() {
+        return InputCaptureState.hasFlag(state.read(), InputCaptureState.MOUSE);
+    }
+
+    /**
+     * Checks if ImGui consumes the keyboard input.
+     *
+     * @return {@code true} if keyboard input must be hidden from the game, {@code false} otherwise.
+     */
+    boolean isKeyboardCapture() {
+        return InputCaptureState.hasFlag(state.read(), InputCaptureState.KEYBOARD);
+    }
+
+    /**
+     * Checks if ImGui expects text input.
+     *
+     * @return {@code true} if a text field of ImGui is active, {@code false} otherwise.
+     */
+    boolean isTextInputCapture() {
+        return InputCaptureState.hasFlag(state.read(), InputCaptureState.TEXT_INPUT);
+    }
+
+    /**
+     * Getting the text box focused in the game while ImGui expects text input
+     *
+     * @return the shared focus proxy
+     */
+    UITextBox2 getFocusProxy() {
+        if (focusProxy == null) {
+            focusProxy = new UITextBox2(UIFont.Code, 0, 0, 0, 0, "", false);
+            focusProxy.setEditable(true);
+        }
+        return focusProxy;
+    }
+
+    /**
+     * Focuses or releases the focus proxy.
+     *
+     * @param focused {@code true} if the proxy must hold the game's text focus.
+     */
+    private void updateFocusProxy(boolean focused) {
+        if (focused) {
+            if (Core.CurrentTextEntryBox != getFocusProxy()) {
+                getFocusProxy().focus();
+            }
+        } else if (focusProxy != null && Core.CurrentTextEntryBox == focusProxy) {
+            focusProxy.unfocus();
+        }
+    }
+}
@@ -5,14 +5,23 @@ import imgui.ImFont;
 import imgui.ImGui;
 import imgui.ImGuiIO;
 import imgui.gl3.ImGuiImplGl3;
-import imgui.glfw.ImGuiImplGlfw;
+import org.lwjgl.glfw.GLFW;
 import org.lwjglx.opengl.Display;
-import zombie.core.opengl.RenderThread;
+import zombie.ui.UITextBox2;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Manages the ImGui lifecycle, including initialization, rendering, and widget management.
@@ -20,10 +29,25 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * as well as interfacing with GLFW and OpenGL for rendering.
  */
 public class ImGuiManager {
+    /**
+     * Name of the folder in the plugin config folder that holds the extracted native library.
+     */
+    private static final String NATIVE_CACHE_FOLDER = "natives";
+
+    /**
+     * Name of the file in the plugin config folder that holds the ImGui window settings.
+     */
+    private static final String INI_FILE = "imgui-config.ini";
+
+    /**
+     * Delay in milliseconds after the last change of the window settings before they are written.
+     */
+    private static final long INI_WRITE_DELAY = 1000;
+
     /**
      * An instance of ImGui's GLFW implementation for window management and input handling.
      */
-    private final static ImGuiImplGlfw imGuiGlfw = new ImGuiImplGlfw();
+    private final static ImGuiGlfwBackend imGuiGlfw = new ImGuiGlfwBackend();
 
     /**
      * An instance of ImGui's OpenGL implementation for rendering.
@@ -31,10 +55,50 @@ public class ImGuiManager {
     private final static ImGuiImplGl3 imGuiGl3 = new ImGuiImplGl3();
 
     /**
-     * Indicates whether the mouse is currently capturing input.
-     * This is used to determine if any widget is capturing the mouse.
+     * Decides once per frame which input ImGui consumes and hides it from the game.
+     */
+    private static final ImGuiInputRouter inputRouter = new ImGuiInputRouter();
+
+    /**
+     * Indicates whether the previous frame was skipped because no widget was visible.
+     */
+    private static boolean idle = true;
+
+    /**
+     * Indicates whether the retained mode is enabled.
+     * In this mode the ImGui frame is only rebuilt when a widget or the input marks it dirty,
+     * otherwise the previous draw data is submitted to the renderer again.
+     */
+    private static volatile boolean retainedMode = false;
+
+    /**
+     * Tracks the dirty state of the retained mode and counts rebuilt and replayed frames.
+     */
+    private static final RetainedFrameTracker frameTracker = new RetainedFrameTracker();
+
+    /**
+     * Schedules updates of widgets with a limited update rate.
+     */
+    private static final UpdateScheduler updateScheduler = new UpdateScheduler();
+
+    /**
+     * Schedules snapshot collection of {@link ImGuiSnapshotWidget} widgets on the game logic thread.
+     */
+    private static final UpdateScheduler snapshotScheduler = new UpdateScheduler();
+
+    /**
+     * Tracks the time spent on ImGui per frame and throttles low-priority widgets when it exceeds the budget.
      */
-    private static boolean mouseCapture = false;
+    private static final FrameBudget frameBudget = new FrameBudget();
+
+    /**
+     * Cursor position and window size seen by the last frame, used to detect input changes in the retained mode.
+     * GLFW reports cursor movement and resizing through polling only, so they are compared every frame.
+     */
+    private static final double[] cursorX = new double[1], cursorY = new double[1];
+    private static final int[] windowWidth = new int[1], windowHeight = new int[1];
+    private static double lastCursorX, lastCursorY;
+    private static int lastWindowWidth, lastWindowHeight;
 
     /**
      * The ImGuiIO object that handles input/output and configuration settings for ImGui.
@@ -43,10 +107,52 @@ public class ImGuiManager {
     private static ImGuiIO io;
 
     /**
-     * A thread-safe list that holds all registered ImGui widgets.
-     * The list is used to manage the widgets' lifecycle and rendering.
+     * The CPU phase of the initialization running in the background, or {@code null} if it has not been started or failed.
+     */
+    private static volatile CompletableFuture<Long> initTask;
+
+    /**
+     * Duration of the CPU phase of the initialization in nanoseconds, or {@code -1} until the GL phase has started.
+     * Only accessed from the render thread.
+     */
+    private static long initCpuTime = -1;
+
+    /**
+     * Time spent on the render thread by the GL phase of the initialization in nanoseconds.
+     * Only accessed from the render thread.
+     */
+    private static long initGlTime = 0;
+
+    /**
+     * Indicates whether both phases of the initialization are complete and frames are rendered.
+     */
+    private static volatile boolean initialized = false;
+
+    /**
+     * Indicates whether the game window has been created, so the initialization can start.
+     */
+    private static volatile boolean displayCreated = false;
+
+    /**
+     * Indicates whether a widget, a font or {@link #ensureInitialized()} requested the initialization.
+     */
+    private static volatile boolean initRequested = false;
+
+    /**
+     * Writes the ImGui window settings in the background, or {@code null} if they are not saved.
      */
-    private static final List<ImGuiWidget> imGuiWidgets = new CopyOnWriteArrayList<>();
+    private static DebouncedFileWriter iniWriter;
+
+    /**
+     * A thread-safe registry that holds all registered ImGui widgets.
+     * It keeps a separate array of the visible widgets; when it is empty, the manager skips the whole ImGui frame.
+     */
+    private static final WidgetRegistry imGuiWidgets = new WidgetRegistry();
+
+    /**
+     * Built-in widget that displays the profiles of all widgets.
+     */
+    private static final ImGuiDebugWidget debugWidget = new ImGuiDebugWidget();
 
     /**
      * A thread-safe map that associates font names with ImGui fonts.
@@ -54,13 +160,18 @@ public class ImGuiManager {
      */
     private static final Map<String, ImFont> imGuiFonts = new ConcurrentHashMap<>();
 
+    /**
+     * Registered fonts in a plain array, addressed by {@link FontHandle} indices.
+     */
+    private static final FontRegistry fontRegistry = new FontRegistry();
+
     /**
      * Getting a list of all registered ImGui widgets
      *
-     * @return list of all loaded ImGui widgets
+     * @return unmodifiable snapshot of all loaded ImGui widgets in render order
      */
     public static List<ImGuiWidget> getWidgets() {
-        return imGuiWidgets;
+        return Collections.unmodifiableList(Arrays.asList(imGuiWidgets.getWidgets()));
     }
 
     /**
@@ -90,6 +201,102 @@ public class ImGuiManager {
      */
     public static void addFont(String fontName, ImFont font) {
         imGuiFonts.put(fontName, font);
+        fontRegistry.register(fontName, null, 0, font);
+    }
+
+    /**
+     * Registers a new font that can also be looked up by its family and size.
+     *
+     * @param fontName the name of the font to register.
+     * @param family   the family of the font.
+     * @param size     the size of the font in pixels.
+     * @param font     the {@link ImFont} object representing the font.
+     */
+    static void addFont(String fontName, String family, int size, ImFont font) {
+        imGuiFonts.put(fontName, font);
+        fontRegistry.register(fontName, family, size, font);
+    }
+
+    /**
+     * Removes a font that is no longer part of the atlas. Its handles resolve to the built-in font again.
+     *
+     * @param fontName the name of the font.
+     * @param family   the family of the font.
+     * @param size     the size of the font in pixels.
+     * @return the removed font, which widgets may still hold, or {@code null} if no font was registered under the name
+     */
+    static ImFont removeFont(String fontName, String family, int size) {
+        fontRegistry.unregister(fontName, family, size);
+        return imGuiFonts.remove(fontName);
+    }
+
+    /**
+     * Allows the missing fonts of all handles to be requested again, e.g. after a font family has been registered.
+     */
+    static void resetFontRequests() {
+        fontRegistry.resetRequests();
+    }
+
+    /**
+     * Marks the font of a handle as used in the current frame.
+     *
+     * @param handle the font handle.
+     */
+    static void touchFont(FontHandle handle) {
+        fontRegistry.touch(handle.getIndex());
+    }
+
+    /**
+     * Getting the frame in which the font of a handle was last used
+     *
+     * @param handle the font handle.
+     * @return the frame number
+     */
+    static int getFontLastUsed(FontHandle handle) {
+        return fontRegistry.getLastUsed(handle.getIndex());
+    }
+
+    /**
+     * Getting the frame number used to track font usage
+     *
+     * @return the frame number
+     */
+    static int getFontFrame() {
+        return fontRegistry.getFrame();
+    }
+
+    /**
+     * Sets the built-in font of the current atlas, which handles of fonts that are not registered yet resolve to.
+     *
+     * @param font the built-in font.
+     */
+    static void setFallbackFont(ImFont font) {
+        fontRegistry.setFallback(font);
+    }
+
+    /**
+     * Retrieves the handle of a font by its name.
+     * The handle can be obtained before the font is created; it resolves to the built-in font until then.
+     *
+     * @param fontName the name of the font.
+     * @return the {@link FontHandle} of the font
+     */
+    public static FontHandle getFontHandle(String fontName) {
+        ensureInitialized();
+        return fontRegistry.getHandle(fontName);
+    }
+
+    /**
+     * Retrieves the handle of a font by its family and size, e.g. {@code ("Roboto", 14)}.
+     * The handle can be obtained before such a font is created; it resolves to the built-in font until then.
+     *
+     * @param family the family of the font, case-insensitive.
+     * @param size   the size of the font in pixels.
+     * @return the {@link FontHandle} of the font
+     */
+    public static FontHandle getFontHandle(String family, int size) {
+        ensureInitialized();
+        return fontRegistry.getHandle(family, size);
     }
 
     /**
@@ -99,8 +306,24 @@ public class ImGuiManager {
      * @param widget the {@link ImGuiWidget} to add.
      */
     public static void addWidget(ImGuiWidget widget) {
-        if (!imGuiWidgets.contains(widget)) {
-            imGuiWidgets.add(widget);
+        ensureInitialized();
+
+        if (imGuiWidgets.add(widget)) {
+            markDirty();
+        }
+    }
+
+    /**
+     * Adds several widgets to the screen at once.
+     * The widget list is republished once for the whole batch.
+     *
+     * @param widgets the {@link ImGuiWidget} widgets to add.
+     */
+    public static void addWidgets(Collection<? extends ImGuiWidget> widgets) {
+        ensureInitialized();
+
+        if (imGuiWidgets.addAll(widgets)) {
+            markDirty();
         }
     }
 
@@ -111,7 +334,54 @@ public class ImGuiManager {
      * @param widget the {@link ImGuiWidget} to remove.
      */
     public static void removeWidget(ImGuiWidget widget) {
-        imGuiWidgets.remove(widget);
+        if (imGuiWidgets.remove(widget)) {
+            markDirty();
+        }
+    }
+
+    /**
+     * Removes several widgets from the screen at once.
+     * The widget list is republished once for the whole batch.
+     *
+     * @param widgets the {@link ImGuiWidget} widgets to remove.
+     */
+    public static void removeWidgets(Collection<? extends ImGuiWidget> widgets) {
+        if (imGuiWidgets.removeAll(widgets)) {
+            markDirty();
+        }
+    }
+
+    /**
+     * Called when a widget is shown or hidden.
+     *
+     * @param widget the widget whose visibility changed.
+     */
+    static void onVisibilityChanged(ImGuiWidget widget) {
+        if (!imGuiWidgets.contains(widget)) return;
+
+        imGuiWidgets.visibilityChanged();
+        markDirty();
+    }
+
+    /**
+     * Called when the z-order of a widget changes.
+     *
+     * @param widget the widget whose z-order changed.
+     */
+    static void onZOrderChanged(ImGuiWidget widget) {
+        if (!imGuiWidgets.contains(widget)) return;
+
+        imGuiWidgets.orderChanged();
+        markDirty();
+    }
+
+    /**
+     * Checks if the manager is idle, i.e. no widget is visible and ImGui frames are skipped.
+     *
+     * @return {@code true} if no widget is visible, {@code false} otherwise.
+     */
+    public static boolean isIdle() {
+        return imGuiWidgets.getVisibleWidgets().length == 0;
     }
 
     /**
@@ -124,34 +394,364 @@ public class ImGuiManager {
     }
 
     /**
-     * Checks if any widget is currently capturing the mouse input.
+     * Checks if ImGui is currently capturing the mouse input, i.e. the cursor is over an ImGui window,
+     * popup or tooltip, or ImGui is dragging.
      *
-     * @return {@code true} if a widget is capturing the mouse, {@code false} otherwise.
+     * @return {@code true} if mouse input must be hidden from the game, {@code false} otherwise.
      */
     public static boolean isMouseCapture() {
-        return mouseCapture;
+        return inputRouter.isMouseCapture();
+    }
+
+    /**
+     * Checks if ImGui is currently capturing the keyboard input.
+     *
+     * @return {@code true} if keyboard input must be hidden from the game, {@code false} otherwise.
+     */
+    public static boolean isKeyboardCapture() {
+        return inputRouter.isKeyboardCapture();
+    }
+
+    /**
+     * Checks if ImGui currently expects text input.
+     *
+     * @return {@code true} if an ImGui text field is active, {@code false} otherwise.
+     */
+    public static boolean isTextInputCapture() {
+        return inputRouter.isTextInputCapture();
+    }
+
+    /**
+     * Getting the input capture decision of the last ImGui frame.
+     * The game thread can read the mouse, keyboard and text-input flags of one frame at once with {@link InputCaptureState#read()}.
+     *
+     * @return the published capture state
+     */
+    public static InputCaptureState getInputCaptureState() {
+        return inputRouter.getState();
+    }
+
+    /**
+     * Getting the game text box that holds the game's text focus while ImGui expects text input
+     *
+     * @return the shared focus proxy
+     */
+    static UITextBox2 getFocusProxy() {
+        return inputRouter.getFocusProxy();
+    }
+
+    /**
+     * Getting the durations of a widget's update and render calls over the most recent frames
+     *
+     * @param widget the widget.
+     * @return the widget's profile
+     */
+    public static WidgetProfile getWidgetProfile(ImGuiWidget widget) {
+        return widget.getProfile();
+    }
+
+    /**
+     * Getting the built-in widget that displays the profiles of all widgets
+     *
+     * @return the debug widget, which is not added to the screen by default
+     */
+    public static ImGuiDebugWidget getDebugWidget() {
+        return debugWidget;
+    }
+
+    /**
+     * Checks if the retained mode is enabled.
+     *
+     * @return {@code true} if frames are only rebuilt when something is dirty, {@code false} otherwise.
+     */
+    public static boolean isRetainedMode() {
+        return retainedMode;
+    }
+
+    /**
+     * Enables or disables the retained mode.
+     * While enabled, frames are rebuilt only after {@link #markDirty()} or an input change,
+     * and the previous draw data is replayed otherwise.
+     *
+     * @param enabled {@code true} to enable the retained mode, {@code false} to rebuild every frame.
+     */
+    public static void setRetainedMode(boolean enabled) {
+        retainedMode = enabled;
+        markDirty();
+    }
+
+    /**
+     * Marks the ImGui output as outdated, so the next frames are rebuilt in the retained mode.
+     * Can be called from any thread.
+     */
+    public static void markDirty() {
+        frameTracker.markDirty();
+    }
+
+    /**
+     * Marks the output of a widget as outdated. Changes of throttled widgets wait for the next throttled rebuild.
+     * Can be called from any thread.
+     *
+     * @param widget the widget whose output changed.
+     */
+    static void markDirty(ImGuiWidget widget) {
+        if (frameBudget.getMaxRate(widget.getPriority()) > 0) {
+            frameTracker.markDeferred();
+        } else {
+            frameTracker.markDirty();
+        }
+    }
+
+    /**
+     * Called by the GLFW backend on every input event.
+     */
+    static void onInput() {
+        frameTracker.markDirty();
+    }
+
+    /**
+     * Getting the frame budget, which exposes the time spent on ImGui per frame and the throttling decisions
+     *
+     * @return the frame budget
+     */
+    public static FrameBudget getFrameBudget() {
+        return frameBudget;
+    }
+
+    /**
+     * Getting the number of frames rebuilt from scratch
+     *
+     * @return number of rebuilt frames
+     */
+    public static long getRebuiltFrames() {
+        return frameTracker.getRebuiltFrames();
+    }
+
+    /**
+     * Getting the number of frames that replayed the previous draw data in the retained mode or while widgets were throttled
+     *
+     * @return number of replayed frames
+     */
+    public static long getReplayedFrames() {
+        return frameTracker.getReplayedFrames();
+    }
+
+    /**
+     * Called after the game window is created.
+     * ImGui is only initialized if it was requested before, or when the debug widget is enabled in the config;
+     * otherwise the initialization waits for the first widget or font request.
+     */
+    public static void onDisplayCreated() {
+        displayCreated = true;
+
+        if (Main.getConfig().getBoolean("debugWidget")) {
+            ensureInitialized();
+        }
+
+        if (initRequested) {
+            init();
+        }
+    }
+
+    /**
+     * Requests the initialization of ImGui. It starts as soon as the game window exists.
+     * Called by the first widget or font request; until then, ImGui creates no context, no font atlas and no GL resources,
+     * and the render and input hooks return immediately.
+     * Can be called from any thread.
+     */
+    public static void ensureInitialized() {
+        if (initRequested) return;
+
+        synchronized (ImGuiManager.class) {
+            if (initRequested) return;
+            initRequested = true;
+        }
+
+        // Read the default fonts while the game is still starting
+        ImGuiFont.preloadDefaultFonts();
+
+        if (displayCreated) {
+            init();
+        }
     }
 
     /**
      * Initializes ImGui and its dependencies, including GLFW and OpenGL.
-     * This method sets up the ImGui context, loads default fonts, and invokes the "OnImGuiInitialize" event.
+     * The initialization is split into two phases so that it does not block the first frame of the game:
+     * the context, the default fonts and the atlas pixels are created on a background thread during the loading screen,
+     * and the first {@link #render()} afterward installs the GLFW callbacks and invokes the "OnImGuiInitialize" event.
+     * Fonts created in the meantime are baked in the background; once they are ready, a later {@link #render()}
+     * compiles the shaders and uploads the font texture.
      */
-    public static void init() {
-        RenderThread.invokeOnRenderContext(() -> {
+    public static synchronized void init() {
+        if (initTask != null || initialized) return;
+
+        initTask = CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+
+            // Load the native library from the config folder before the binding extracts it to a temporary folder
+            NativeLibraryCache.prepare(Main.getInstance().getConfigFolder().toPath().resolve(NATIVE_CACHE_FOLDER));
+
             ImGui.createContext();
 
             io = ImGui.getIO();
-            io.setIniFilename(Main.getConfig().getBoolean("saveIniFile") ? Main.getInstance().getConfigFolder().toPath().resolve("imgui-config.ini").toString() : null);
+
+            // ImGui never touches the disk itself, the window settings are loaded here and saved by the render loop
+            io.setIniFilename(null);
+            if (Main.getConfig().getBoolean("saveIniFile")) {
+                loadIniSettings(Main.getInstance().getConfigFolder().toPath().resolve(INI_FILE));
+            }
+
+            frameBudget.setBudget(Main.getConfig().getDouble("frameBudgetMs"));
+
+            if (Main.getConfig().getBoolean("retainedMode")) {
+                setRetainedMode(true);
+            }
+
+            if (Main.getConfig().getBoolean("debugWidget")) {
+                debugWidget.addToScreen();
+            }
 
             ImGuiFont.loadDefaultFonts();
 
-            imGuiGlfw.init(Display.getWindow(), true);
-            imGuiGl3.init("#version 330 core");
+            return System.nanoTime() - start;
+        }, runnable -> {
+            Thread thread = new Thread(runnable, "ImGuiAPI-Init");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
 
-            System.out.println("[#] ImGui - successful context initialization!");
+    /**
+     * Completes the initialization on the render thread once the CPU phase is done.
+     * The GL phase installs the GLFW callbacks and invokes the "OnImGuiInitialize" event. Fonts created by the event
+     * or while the CPU phase was running are baked on the atlas thread; the frames until they are ready are not rendered.
+     * Then the baked atlas is swapped in, the shaders are compiled and the font texture is uploaded, so the fonts are
+     * available from the first frame and are never rasterized on the render thread.
+     *
+     * @return {@code true} if ImGui is initialized and the frame can be rendered, {@code false} otherwise.
+     */
+    private static boolean finishInit() {
+        if (initCpuTime < 0) {
+            CompletableFuture<Long> task = initTask;
+            if (task == null || !task.isDone()) return false;
+
+            try {
+                initCpuTime = task.join();
+            } catch (CompletionException | CancellationException e) {
+                System.out.println("[!] ImGui - failed to initialize context: " + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+                initTask = null;
+                return false;
+            }
+
+            long start = System.nanoTime();
+            imGuiGlfw.init(Display.getWindow(), true);
+            initGlTime = System.nanoTime() - start;
 
             EventManager.invokeEvent("OnImGuiInitialize", io);
-        });
+        }
+
+        if (!ImGuiFont.prepareInitialAtlas()) return false;
+
+        long start = System.nanoTime();
+
+        imGuiGl3.init("#version 330 core");
+        initGlTime += System.nanoTime() - start;
+
+        initialized = true;
+
+        System.out.printf("[#] ImGui - successful context initialization! (CPU phase %d ms in background, GL phase %d ms)%n",
+                initCpuTime / 1_000_000, initGlTime / 1_000_000);
+        return true;
+    }
+
+    /**
+     * Loads the ImGui window settings and sets up the background writer that saves them.
+     * Called in the CPU phase of the initialization, before the first frame.
+     *
+     * @param file the settings file.
+     */
+    private static void loadIniSettings(Path file) {
+        try {
+            if (Files.isRegularFile(file)) {
+                ImGui.loadIniSettingsFromMemory(Files.readString(file));
+            }
+        } catch (IOException e) {
+            System.out.printf("[!] Failed to read ImGui settings '%s': %s%n", file.getFileName(), e.getMessage());
+        }
+
+        DebouncedFileWriter writer = new DebouncedFileWriter(file, INI_WRITE_DELAY);
+        Runtime.getRuntime().addShutdownHook(new Thread(writer::flush, "ImGuiAPI-IniFlush"));
+        iniWriter = writer;
+    }
+
+    /**
+     * Hands the ImGui window settings to the background writer when ImGui requests to save them.
+     * The settings are captured in memory on the render thread; the file is written on the writer thread.
+     */
+    private static void saveIniSettings() {
+        if (iniWriter == null || !io.getWantSaveIniSettings()) return;
+
+        iniWriter.write(ImGui.saveIniSettingsToMemory().getBytes(StandardCharsets.UTF_8));
+        io.setWantSaveIniSettings(false);
+    }
+
+    /**
+     * Checks if ImGui is initialized, i.e. both phases of the initialization are complete and frames are rendered.
+     *
+     * @return {@code true} if ImGui is initialized, {@code false} otherwise.
+     */
+    public static boolean isInitialized() {
+        return initialized;
+    }
+
+    /**
+     * Creates an ImGui context without the GLFW and GL3 backends and loads the default fonts, which also builds the font atlas.
+     * Used by benchmarks, which run without a window or a GL context.
+     *
+     * @param displayWidth  the width of the virtual display.
+     * @param displayHeight the height of the virtual display.
+     * @return the {@link ImGuiIO} of the created context.
+     */
+    static ImGuiIO createHeadlessContext(int displayWidth, int displayHeight) {
+        ImGui.createContext();
+
+        io = ImGui.getIO();
+        io.setIniFilename(null);
+        io.setDisplaySize(displayWidth, displayHeight);
+
+        ImGuiFont.loadDefaultFonts();
+
+        return io;
+    }
+
+    /**
+     * Destroys the context created by {@link #createHeadlessContext(int, int)}.
+     */
+    static void destroyHeadlessContext() {
+        ImGui.destroyContext();
+        io = null;
+    }
+
+    /**
+     * Collects snapshots of all visible {@link ImGuiSnapshotWidget} widgets.
+     * This method is called on the game logic thread after every game tick.
+     */
+    public static void logic() {
+        if (!initialized) return;
+
+        long now = System.nanoTime();
+
+        for (ImGuiWidget widget : imGuiWidgets.getVisibleWidgets()) {
+            if (!(widget instanceof ImGuiSnapshotWidget<?> snapshotWidget)) continue;
+            if (!snapshotScheduler.pollCollect(snapshotWidget, now)) continue;
+
+            try {
+                snapshotWidget.publishSnapshot();
+            } catch (Exception e) {
+                System.out.printf("[!] Failed to collect snapshot of widget '%s': %s%n", widget.getClass().getName(), e.getMessage());
+            }
+        }
     }
 
     /**
@@ -160,26 +760,175 @@ public class ImGuiManager {
      * including input handling, widget updates, and drawing.
      */
     public static void render() {
-        if (io == null) return;
+        if (!initialized && !finishInit()) return;
+
+        fontRegistry.nextFrame();
+        if (ImGuiFont.applyAtlasChanges()) {
+            imGuiGl3.updateFontsTexture();
+            markDirty();
+        }
+
+        ImGuiWidget[] visibleWidgets = imGuiWidgets.getVisibleWidgets();
+
+        if (visibleWidgets.length == 0) {
+            enterIdle();
+            return;
+        }
+
+        boolean resumed = idle;
+        if (idle) {
+            leaveIdle();
+        }
+
+        long now = System.nanoTime();
+
+        if (retainedMode || frameBudget.isThrottling()) {
+            pollInputChanges();
+        }
+
+        if (!shouldRebuildFrame(visibleWidgets, now, resumed, isInteracting())) {
+            imGuiGl3.renderDrawData(ImGui.getDrawData());
+            frameBudget.record(System.nanoTime() - now);
+            return;
+        }
 
         imGuiGlfw.newFrame();
         ImGui.newFrame();
 
-        mouseCapture = false;
+        buildFrame(visibleWidgets, now);
+
+        ImGui.render();
 
-        for (ImGuiWidget widget : imGuiWidgets) {
+        inputRouter.update(io);
+        ImGuiFont.trackGlyphUsage(ImGui.getDrawData());
+        saveIniSettings();
+
+        imGuiGl3.renderDrawData(ImGui.getDrawData());
+        frameBudget.record(System.nanoTime() - now);
+    }
+
+    /**
+     * Decides whether the frame is rebuilt or the previous draw data is replayed.
+     * In the retained mode, the frame is rebuilt after input, a change or a due scheduled update; otherwise every frame is rebuilt.
+     * While the frame budget throttles widgets, work of throttled widgets (their changes and scheduled updates, or
+     * any frame in the immediate mode) rebuilds the frame at {@value FrameBudget#THROTTLED_RATE} Hz at most, so
+     * the previous draw data is replayed unless input changed or a widget that is not throttled has work to do.
+     * Does not touch the GLFW or GL3 backends.
+     *
+     * @param visibleWidgets the visible widgets in render order.
+     * @param now            the current time in nanoseconds.
+     * @param resumed        {@code true} if the previous frame was skipped because no widget was visible.
+     * @param interacting    {@code true} if the user interacts with ImGui, e.g. holds a mouse button or types.
+     * @return {@code true} if the frame has to be rebuilt, {@code false} if the previous draw data is replayed.
+     */
+    static boolean shouldRebuildFrame(ImGuiWidget[] visibleWidgets, long now, boolean resumed, boolean interacting) {
+        boolean throttling = frameBudget.isThrottling();
+        if (!retainedMode && !throttling) return true;
+
+        boolean force = resumed || interacting;
+        boolean deferredWork = false;
+        for (ImGuiWidget widget : visibleWidgets) {
+            // In the immediate mode, a widget may change its output in every frame
+            if (retainedMode && !updateScheduler.isScheduledUpdateDue(widget, now)) continue;
+
+            if (throttling && frameBudget.getMaxRate(widget.getPriority()) > 0) {
+                deferredWork = true;
+            } else {
+                force = true;
+            }
+        }
+
+        long deferredPeriod = throttling ? 1_000_000_000L / FrameBudget.THROTTLED_RATE : 0;
+        boolean rebuild = frameTracker.beginFrame(force, deferredWork, now, deferredPeriod);
+        if (!rebuild && throttling) frameBudget.recordReplay();
+
+        return rebuild;
+    }
+
+    /**
+     * Updates and renders the visible widgets into the current ImGui frame.
+     * Must be called between {@code ImGui.newFrame()} and {@code ImGui.render()}; it does not touch the GLFW or GL3 backends.
+     *
+     * @param visibleWidgets the visible widgets in render order.
+     * @param now            the current time in nanoseconds.
+     */
+    static void buildFrame(ImGuiWidget[] visibleWidgets, long now) {
+        int throttled = 0, deferred = 0;
+
+        for (ImGuiWidget widget : visibleWidgets) {
             if (!widget.isVisible()) continue;
 
-            widget.update();
-            widget.render();
+            // Throttled widgets are updated at a reduced rate and render the results of their last update
+            int maxRate = frameBudget.getMaxRate(widget.getPriority());
+            if (maxRate > 0) throttled++;
 
-            if (widget.isHover()) {
-                mouseCapture = true;
+            if (updateScheduler.poll(widget, now, maxRate)) {
+                long start = System.nanoTime();
+                widget.update();
+                widget.profile.getUpdate().record(System.nanoTime() - start);
+            } else if (maxRate > 0) {
+                deferred++;
             }
+
+            long start = System.nanoTime();
+            widget.render();
+            widget.profile.getRender().record(System.nanoTime() - start);
         }
 
-        ImGui.render();
+        frameBudget.recordThrottling(throttled, deferred);
+    }
 
-        imGuiGl3.renderDrawData(ImGui.getDrawData());
+    /**
+     * Marks the frame dirty if the cursor moved or the window was resized since the last frame.
+     */
+    private static void pollInputChanges() {
+        long window = Display.getWindow();
+
+        GLFW.glfwGetCursorPos(window, cursorX, cursorY);
+        GLFW.glfwGetWindowSize(window, windowWidth, windowHeight);
+
+        if (cursorX[0] != lastCursorX || cursorY[0] != lastCursorY
+                || windowWidth[0] != lastWindowWidth || windowHeight[0] != lastWindowHeight) {
+            lastCursorX = cursorX[0];
+            lastCursorY = cursorY[0];
+            lastWindowWidth = windowWidth[0];
+            lastWindowHeight = windowHeight[0];
+
+            frameTracker.markDirty();
+        }
+    }
+
+    /**
+     * Checks if the user is interacting with ImGui in a way that changes the output without new input events,
+     * such as holding a mouse button or typing into a text field with a blinking cursor.
+     *
+     * @return {@code true} if the frame has to be rebuilt, {@code false} otherwise.
+     */
+    private static boolean isInteracting() {
+        return io.getWantTextInput() || ImGui.isAnyMouseDown();
+    }
+
+    /**
+     * Switches the manager to idle mode.
+     * Releases all input back to the game, since no frame will update the capture state until a widget becomes visible again.
+     */
+    private static void enterIdle() {
+        if (idle) return;
+
+        idle = true;
+        inputRouter.release();
+    }
+
+    /**
+     * Leaves idle mode before the first frame with visible widgets.
+     * Input collected by the GLFW callbacks while idle (pending clicks, typed characters) is consumed by an empty frame,
+     * so it is not delivered to the widgets that have just become visible.
+     */
+    private static void leaveIdle() {
+        idle = false;
+
+        imGuiGlfw.newFrame();
+        ImGui.newFrame();
+        ImGui.endFrame();
     }
 }
\ No newline at end of file
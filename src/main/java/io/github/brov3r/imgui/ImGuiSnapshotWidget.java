@@ -0,0 +1,69 @@
+package io.github.brov3r.imgui;
+
+import java.util.Objects;
+
+/**
+ * A widget that gathers its data on the game logic thread and renders it on the render thread.
+ * <p>
+ * {@link #collect()} is called on the game thread after every game logic tick (or at the widget's update rate)
+ * and returns an immutable snapshot of the game state. {@link #render()} runs on the render thread and must only read
+ * the data returned by {@link #getSnapshot()}, never the game state itself.
+ *
+ * @param <S> the snapshot type, which must be immutable.
+ */
+public abstract class ImGuiSnapshotWidget<S> extends ImGuiWidget {
+    /**
+     * Exchange that hands snapshots from the game thread to the render thread.
+     */
+    private final SnapshotExchange<S> snapshots = new SnapshotExchange<>();
+
+    /**
+     * Time in nanoseconds at which the next scheduled {@link #collect()} is due.
+     * Managed by the {@link UpdateScheduler} on the game thread; {@code 0} means that it has not been scheduled yet.
+     */
+    long nextCollectTime = 0;
+
+    /**
+     * Sets the frequency of {@link #update()} calls and snapshot collection.
+     *
+     * @param updateRate update frequency in Hz, or {@code 0} to collect a snapshot on every game tick.
+     */
+    @Override
+    public void setUpdateRate(int updateRate) {
+        super.setUpdateRate(updateRate);
+        this.nextCollectTime = 0;
+    }
+
+    /**
+     * Gathers the data displayed by the widget.
+     * Called on the game logic thread, so the game state can be read safely.
+     *
+     * @return an immutable snapshot of the data, or {@code null} to keep the previous snapshot.
+     */
+    protected abstract S collect();
+
+    /**
+     * Getting the latest snapshot published by {@link #collect()}
+     *
+     * @return the latest snapshot, or {@code null} if none has been collected yet
+     */
+    protected S getSnapshot() {
+        return snapshots.latest();
+    }
+
+    /**
+     * Collects and publishes a new snapshot.
+     * If the snapshot differs from the previous one, the widget is marked dirty for the retained mode.
+     */
+    void publishSnapshot() {
+        S snapshot = collect();
+        if (snapshot == null) return;
+
+        S previous = snapshots.latest();
+        snapshots.publish(snapshot);
+
+        if (!Objects.equals(previous, snapshot)) {
+            markDirty();
+        }
+    }
+}
@@ -1,9 +1,6 @@
 package io.github.brov3r.imgui;
 
 import imgui.ImGui;
-import imgui.ImVec2;
-import zombie.core.Core;
-import zombie.ui.UIFont;
 import zombie.ui.UITextBox2;
 
 /**
@@ -13,16 +10,12 @@ import zombie.ui.UITextBox2;
  * Subclasses must implement the {@link #render()} method to define the widget's specific rendering behavior.
  */
 public abstract class ImGuiWidget {
-    /**
-     * Default InputText UI element for blocking game input
-     */
-    protected UITextBox2 blockBox;
-
     /**
      * Indicates whether the widget is visible on the screen.
      * If {@code true}, the widget is visible; otherwise, it is hidden.
+     * Private so that every change goes through {@link #setVisible(boolean)}, which lets the {@link ImGuiManager} track visible widgets.
      */
-    protected boolean visible = true;
+    private boolean visible = true;
 
     /**
      * Indicates whether the widget is currently being hovered over by the mouse cursor.
@@ -30,17 +23,62 @@ public abstract class ImGuiWidget {
      */
     protected boolean hover = false;
 
+    /**
+     * Position of the widget in the render order.
+     * Widgets with a higher z-order are submitted later and are drawn on top of widgets with a lower one.
+     * Private so that every change goes through {@link #setZOrder(int)}, which lets the {@link ImGuiManager} reorder the widgets.
+     */
+    private int zOrder = 0;
+
+    /**
+     * Registration order of the widget, used to order widgets with the same z-order.
+     * Managed by the {@link WidgetRegistry}.
+     */
+    long registrationSequence = 0;
+
+    /**
+     * Durations of the widget's update and render calls, measured by the {@link ImGuiManager}.
+     */
+    final WidgetProfile profile = new WidgetProfile();
+
+    /**
+     * Highest frequency of {@link #update()} calls in Hz; higher update rates are limited to it.
+     */
+    public static final int MAX_UPDATE_RATE = 1000;
+
+    /**
+     * Frequency of {@link #update()} calls in Hz, at most {@link #MAX_UPDATE_RATE}.
+     * If {@code 0}, the widget is updated every frame.
+     */
+    protected int updateRate = 0;
+
+    /**
+     * Priority of the widget when ImGui exceeds its frame budget.
+     * Widgets of a lower priority are updated at a reduced rate first; {@link WidgetPriority#HIGH} widgets are never throttled.
+     */
+    protected WidgetPriority priority = WidgetPriority.NORMAL;
+
+    /**
+     * Time in nanoseconds at which the next scheduled {@link #update()} is due.
+     * Managed by the {@link UpdateScheduler}; {@code 0} means that the widget has not been scheduled yet.
+     */
+    long nextUpdateTime = 0;
+
+    /**
+     * Persistent state of the widget, created on first use.
+     * Bound to the store of a plugin by {@link #bindState(WidgetStateStore, String)}, otherwise it is kept in memory only.
+     */
+    private WidgetState state;
+
     /**
      * Getting the default InputText UI Element to block game input
      *
-     * @return the default InputText UI element
+     * @return the text box shared by all widgets, focused by the {@link ImGuiManager} while ImGui expects text input
+     * @deprecated game input is blocked by the {@link ImGuiManager} based on ImGui's capture flags.
      */
+    @Deprecated
     protected UITextBox2 getBlockBox() {
-        if (blockBox == null) {
-            blockBox = new UITextBox2(UIFont.Code, 0, 0, 0, 0, "", false);
-            blockBox.setEditable(true);
-        }
-        return blockBox;
+        return ImGuiManager.getFocusProxy();
     }
 
     /**
@@ -67,7 +105,120 @@ public abstract class ImGuiWidget {
      * @param visible {@code true} to make the widget visible, {@code false} to hide it.
      */
     public void setVisible(boolean visible) {
+        if (this.visible == visible) return;
+
         this.visible = visible;
+
+        if (!visible) {
+            hover = false;
+        }
+
+        ImGuiManager.onVisibilityChanged(this);
+    }
+
+    /**
+     * Getting the durations of the widget's update and render calls
+     *
+     * @return the widget's profile
+     */
+    public WidgetProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Getting the position of the widget in the render order
+     *
+     * @return z-order of the widget
+     */
+    public int getZOrder() {
+        return zOrder;
+    }
+
+    /**
+     * Sets the position of the widget in the render order.
+     * Widgets with a higher z-order are submitted later and are drawn on top of widgets with a lower one.
+     *
+     * @param zOrder z-order of the widget.
+     */
+    public void setZOrder(int zOrder) {
+        if (this.zOrder == zOrder) return;
+
+        this.zOrder = zOrder;
+        ImGuiManager.onZOrderChanged(this);
+    }
+
+    /**
+     * Getting the frequency of {@link #update()} calls
+     *
+     * @return update frequency in Hz, or {@code 0} if the widget is updated every frame
+     */
+    public int getUpdateRate() {
+        return updateRate;
+    }
+
+    /**
+     * Sets the frequency of {@link #update()} calls.
+     * {@link #render()} is still called every frame and should use the results of the last update.
+     *
+     * @param updateRate update frequency in Hz, or {@code 0} to update the widget every frame. Limited to {@link #MAX_UPDATE_RATE}.
+     */
+    public void setUpdateRate(int updateRate) {
+        this.updateRate = Math.max(0, Math.min(updateRate, MAX_UPDATE_RATE));
+        this.nextUpdateTime = 0;
+    }
+
+    /**
+     * Getting the persistent state of the widget, such as filters, column widths or the selected tab.
+     * The state is only persisted after {@link #bindState(WidgetStateStore, String)}; otherwise it lives as long as the widget.
+     *
+     * @return the widget's state
+     */
+    public WidgetState getState() {
+        if (state == null) {
+            state = new WidgetState(getClass().getName(), null);
+        }
+        return state;
+    }
+
+    /**
+     * Binds the state of the widget to a store, usually the store of the plugin that owns the widget,
+     * and loads the values saved in previous sessions.
+     *
+     * @param store    the store, see {@link WidgetStateStore#of(com.avrix.plugin.Plugin)}.
+     * @param widgetId the identifier of the widget, unique within the store.
+     */
+    public void bindState(WidgetStateStore store, String widgetId) {
+        state = store.getState(widgetId);
+    }
+
+    /**
+     * Getting the priority of the widget when ImGui exceeds its frame budget
+     *
+     * @return priority of the widget
+     */
+    public WidgetPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Sets the priority of the widget when ImGui exceeds its frame budget.
+     * While throttled, {@link #update()} is called at a reduced rate, and the frame is rebuilt at that rate as well
+     * while only throttled widgets have work to do; the previous frame is replayed in between.
+     *
+     * @param priority priority of the widget.
+     */
+    public void setPriority(WidgetPriority priority) {
+        this.priority = priority != null ? priority : WidgetPriority.NORMAL;
+    }
+
+    /**
+     * Marks the widget's output as outdated.
+     * In the retained mode, frames are only rebuilt after this call or an input change,
+     * so widgets must call it whenever the data they display changes.
+     * While the widget is throttled by the frame budget, the change is displayed with the next throttled rebuild.
+     */
+    public void markDirty() {
+        ImGuiManager.markDirty(this);
     }
 
     /**
@@ -90,33 +241,29 @@ public abstract class ImGuiWidget {
 
     /**
      * Updates the widget's hover state based on the current mouse position.
-     * This method checks if the mouse cursor is within the bounds of the widget
+     * This method checks if the mouse cursor is within the bounds of the current window
      * and updates the {@link #hover} field accordingly.
+     * It is not needed to block game input, which is handled by the {@link ImGuiManager} for all ImGui windows.
+     * It only uses primitive getters, so it does not allocate.
      * This method is final and cannot be overridden.
      */
     public void captureMouseFocus() {
-        ImVec2 windowSize = ImGui.getWindowSize();
-        ImVec2 windowPos = ImGui.getWindowPos();
+        float windowX = ImGui.getWindowPosX();
+        float windowY = ImGui.getWindowPosY();
 
-        ImVec2 mousePos = ImGui.getMousePos();
+        float mouseX = ImGui.getMousePosX();
+        float mouseY = ImGui.getMousePosY();
 
-        hover = mousePos.x >= windowPos.x && mousePos.y >= windowPos.y &&
-                mousePos.x <= windowPos.x + windowSize.x && mousePos.y <= windowPos.y + windowSize.y;
+        hover = mouseX >= windowX && mouseY >= windowY &&
+                mouseX <= windowX + ImGui.getWindowWidth() && mouseY <= windowY + ImGui.getWindowHeight();
     }
 
     /**
      * Updates the widget's state.
      * This method can be overridden by subclasses to implement custom update logic.
-     * It is called before rendering each frame.
+     * It is called before rendering, every frame or at the frequency set by {@link #setUpdateRate(int)}.
      */
     public void update() {
-        if (!ImGui.isAnyItemActive() && Core.CurrentTextEntryBox == getBlockBox()) {
-            getBlockBox().unfocus();
-        }
-
-        if (ImGui.isAnyItemActive() && Core.CurrentTextEntryBox != getBlockBox()) {
-            getBlockBox().focus();
-        }
     }
 
     /**
@@ -0,0 +1,95 @@
+package io.github.brov3r.imgui;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Input capture decision of one ImGui frame, published from the render thread to the game thread.
+ * <p>
+ * The mouse, keyboard and text-input flags and the frame number are packed into a single {@code long},
+ * so the game thread always reads a complete decision of one frame with a single atomic read and without locks.
+ * The lower bits hold the flags, the remaining bits hold the frame number.
+ */
+public class InputCaptureState {
+    /**
+     * Bit set when ImGui captures the mouse.
+     */
+    public static final long MOUSE = 1L;
+
+    /**
+     * Bit set when ImGui captures the keyboard.
+     */
+    public static final long KEYBOARD = 1L << 1;
+
+    /**
+     * Bit set when ImGui expects text input.
+     */
+    public static final long TEXT_INPUT = 1L << 2;
+
+    /**
+     * Number of low bits reserved for the flags.
+     */
+    private static final int FLAG_BITS = 3;
+
+    /**
+     * Mask of the flag bits.
+     */
+    private static final long FLAG_MASK = (1L << FLAG_BITS) - 1;
+
+    /**
+     * The packed state of the last published frame.
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * Publishes the decision of a frame, replacing the previous one.
+     * Must only be called from the render thread.
+     *
+     * @param frame the number of the frame.
+     * @param flags combination of {@link #MOUSE}, {@link #KEYBOARD} and {@link #TEXT_INPUT}.
+     */
+    public void publish(long frame, long flags) {
+        state.set(pack(frame, flags));
+    }
+
+    /**
+     * Reads the packed state of the last published frame.
+     * Use {@link #hasFlag(long, long)} and {@link #getFrame(long)} to decode it.
+     *
+     * @return packed state
+     */
+    public long read() {
+        return state.get();
+    }
+
+    /**
+     * Packs a frame number and flags into a single value.
+     *
+     * @param frame the number of the frame.
+     * @param flags the capture flags.
+     * @return packed state
+     */
+    public static long pack(long frame, long flags) {
+        return (frame << FLAG_BITS) | (flags & FLAG_MASK);
+    }
+
+    /**
+     * Checks if a packed state has a flag set.
+     *
+     * @param packed the packed state.
+     * @param flag   the flag to check.
+     * @return {@code true} if the flag is set, {@code false} otherwise.
+     */
+    public static boolean hasFlag(long packed, long flag) {
+        return (packed & flag) != 0;
+    }
+
+    /**
+     * Extracts the frame number from a packed state.
+     *
+     * @param packed the packed state.
+     * @return the number of the frame that published the state
+     */
+    public static long getFrame(long packed) {
+        return packed >>> FLAG_BITS;
+    }
+}
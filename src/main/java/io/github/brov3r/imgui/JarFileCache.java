@@ -0,0 +1,50 @@
+package io.github.brov3r.imgui;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.jar.JarFile;
+
+/**
+ * Keeps one open {@link JarFile} per archive while several fonts are loaded, so the central directory
+ * of an archive is read once instead of once per font. Closing the cache closes all archives.
+ */
+class JarFileCache implements AutoCloseable {
+    /**
+     * Open archives by absolute path.
+     */
+    private final Map<Path, JarFile> jarFiles = new HashMap<>();
+
+    /**
+     * Getting the open archive for a path, opening it on first use
+     *
+     * @param jarPath the path to the JAR file.
+     * @return the open archive
+     * @throws IOException if the archive can not be opened.
+     */
+    synchronized JarFile get(Path jarPath) throws IOException {
+        Path key = jarPath.toAbsolutePath().normalize();
+
+        JarFile jarFile = jarFiles.get(key);
+        if (jarFile == null) {
+            jarFile = new JarFile(key.toFile());
+            jarFiles.put(key, jarFile);
+        }
+        return jarFile;
+    }
+
+    /**
+     * Closes all open archives.
+     */
+    @Override
+    public synchronized void close() {
+        for (JarFile jarFile : jarFiles.values()) {
+            try {
+                jarFile.close();
+            } catch (IOException ignored) {
+            }
+        }
+        jarFiles.clear();
+    }
+}
@@ -0,0 +1,223 @@
+package io.github.brov3r.imgui;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.jar.JarEntry;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Extracts the imgui-java native library of the current platform once into the plugin config folder and reuses it
+ * on the next starts, instead of letting the binding extract it into a new temporary folder on every start.
+ * The library is stored in a folder named after the CRC-32 and the size of the JAR entry, so an updated library is
+ * extracted into a new folder, and the extracted file is verified against the CRC-32 before it is used.
+ */
+class NativeLibraryCache {
+    /**
+     * Folder inside the shaded JAR file that holds the native libraries of all platforms.
+     */
+    private static final String NATIVE_FOLDER = "io/imgui/java/native-bin/";
+
+    /**
+     * System property read by the binding for the folder of the native library.
+     */
+    private static final String LIBRARY_PATH_PROPERTY = "imgui.library.path";
+
+    /**
+     * System property read by the binding for the name of the native library.
+     */
+    private static final String LIBRARY_NAME_PROPERTY = "imgui.library.name";
+
+    /**
+     * Size of the buffer used to copy and verify the library.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Prepares the native library in the cache folder and points the binding to it.
+     * Must be called before the {@link imgui.ImGui} class is initialized. Does nothing if the library path is already set.
+     *
+     * @param folder the cache folder.
+     */
+    static void prepare(Path folder) {
+        if (System.getProperty(LIBRARY_PATH_PROPERTY) != null) return;
+
+        long start = System.nanoTime();
+        String fileName = getLibraryFileName();
+
+        try {
+            URL resource = NativeLibraryCache.class.getClassLoader().getResource(NATIVE_FOLDER + fileName);
+            if (resource == null) {
+                System.out.printf("[!] ImGui - native library '%s' not found, falling back to the binding's extraction%n", fileName);
+                return;
+            }
+
+            // Key the library by the checksum recorded in the JAR file, so it is not read to compute the key
+            long crc;
+            long size;
+            URLConnection connection = resource.openConnection();
+            if (connection instanceof JarURLConnection jarConnection) {
+                jarConnection.setUseCaches(false);
+                JarEntry entry = jarConnection.getJarEntry();
+                crc = entry.getCrc();
+                size = entry.getSize();
+            } else {
+                crc = -1;
+                size = -1;
+            }
+
+            if (crc < 0 || size < 0) {
+                try (InputStream in = resource.openStream()) {
+                    long[] checksum = checksum(in);
+                    crc = checksum[0];
+                    size = checksum[1];
+                }
+            }
+
+            Path directory = folder.resolve(String.format("%08x-%d", crc, size));
+            Path library = directory.resolve(fileName);
+
+            if (isValid(library, crc, size)) {
+                System.setProperty(LIBRARY_PATH_PROPERTY, directory.toAbsolutePath().toString());
+                System.out.printf("[#] ImGui - native library reused from '%s' in %d ms%n", directory.getFileName(), (System.nanoTime() - start) / 1_000_000);
+                return;
+            }
+
+            extract(resource, directory, library, crc, size);
+            deleteOthers(folder, directory);
+
+            System.setProperty(LIBRARY_PATH_PROPERTY, directory.toAbsolutePath().toString());
+            System.out.printf("[#] ImGui - native library extracted to '%s' in %d ms%n", directory.getFileName(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            System.out.printf("[!] ImGui - failed to cache native library, falling back to the binding's extraction: %s%n", e.getMessage());
+        }
+    }
+
+    /**
+     * Getting the file name of the native library of the current platform, in the same way the binding resolves it
+     *
+     * @return file name of the native library
+     */
+    private static String getLibraryFileName() {
+        String os = System.getProperty("os.name").toLowerCase(Locale.ROOT);
+        String name = System.getProperty(LIBRARY_NAME_PROPERTY, "imgui-java64");
+
+        if (os.contains("win")) return name + ".dll";
+        if (os.contains("mac")) return "lib" + name + ".dylib";
+        return "lib" + name + ".so";
+    }
+
+    /**
+     * Checks if an extracted library is complete and matches the checksum.
+     *
+     * @param library the extracted library.
+     * @param crc     the expected CRC-32.
+     * @param size    the expected size.
+     * @return {@code true} if the library can be used, {@code false} otherwise.
+     */
+    private static boolean isValid(Path library, long crc, long size) {
+        try {
+            if (!Files.isRegularFile(library) || Files.size(library) != size) return false;
+
+            try (InputStream in = Files.newInputStream(library)) {
+                return checksum(in)[0] == crc;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Extracts the library into a temporary file next to it, verifies it and moves it into place.
+     *
+     * @param resource  the library inside the JAR file.
+     * @param directory the folder of the library.
+     * @param library   the target file.
+     * @param crc       the expected CRC-32.
+     * @param size      the expected size.
+     * @throws IOException if the library can not be extracted or does not match the checksum.
+     */
+    private static void extract(URL resource, Path directory, Path library, long crc, long size) throws IOException {
+        Files.createDirectories(directory);
+        Path tempFile = Files.createTempFile(directory, library.getFileName().toString(), ".tmp");
+
+        try {
+            CRC32 checksum = new CRC32();
+            long written = 0;
+
+            try (InputStream in = new CheckedInputStream(resource.openStream(), checksum);
+                 OutputStream out = Files.newOutputStream(tempFile)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    written += read;
+                }
+            }
+
+            if (written != size || checksum.getValue() != crc) {
+                throw new IOException("Checksum mismatch of extracted native library");
+            }
+
+            try {
+                Files.move(tempFile, library, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // The library may be loaded by another game instance on Windows; reuse it if it is valid
+                if (!isValid(library, crc, size)) throw e;
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Deletes libraries of previous versions from the cache folder.
+     * Libraries that are still loaded by another game instance are skipped.
+     *
+     * @param folder  the cache folder.
+     * @param current the folder of the current library.
+     */
+    private static void deleteOthers(Path folder, Path current) {
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(folder, Files::isDirectory)) {
+            for (Path directory : directories) {
+                if (directory.equals(current)) continue;
+
+                try (Stream<Path> files = Files.walk(directory)) {
+                    files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+                }
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Computes the CRC-32 and the size of a stream.
+     *
+     * @param in the stream.
+     * @return the CRC-32 and the size
+     * @throws IOException if the stream can not be read.
+     */
+    private static long[] checksum(InputStream in) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long size = 0;
+
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            crc.update(buffer, 0, read);
+            size += read;
+        }
+        return new long[]{crc.getValue(), size};
+    }
+}
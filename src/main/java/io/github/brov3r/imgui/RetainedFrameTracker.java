@@ -0,0 +1,123 @@
+package io.github.brov3r.imgui;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether an ImGui frame has to be rebuilt or the previous draw data can be replayed.
+ * Changes are either urgent and rebuild the next frames, or deferred by the frame budget and rebuild the frame
+ * at a reduced rate. The tracker does not touch ImGui itself, so its decisions and counters can be checked without a GL context.
+ */
+class RetainedFrameTracker {
+    /**
+     * Number of frames rebuilt after each invalidation.
+     * ImGui needs a couple of frames to settle layout (auto-fit sizes, hover and active states) after a change.
+     */
+    static final int SETTLE_FRAMES = 3;
+
+    /**
+     * Number of frames that still have to be rebuilt.
+     */
+    private final AtomicInteger pendingFrames = new AtomicInteger(SETTLE_FRAMES);
+
+    /**
+     * Indicates whether a deferred change waits for the next deferred rebuild.
+     */
+    private volatile boolean deferred = false;
+
+    /**
+     * Time in nanoseconds from which deferred changes can rebuild the frame again. Only accessed from the render thread.
+     */
+    private long nextDeferredFrame = 0;
+
+    /**
+     * Number of frames rebuilt from scratch.
+     */
+    private final AtomicLong rebuiltFrames = new AtomicLong();
+
+    /**
+     * Number of frames that replayed the previous draw data.
+     */
+    private final AtomicLong replayedFrames = new AtomicLong();
+
+    /**
+     * Marks the current output as outdated, so the next frames are rebuilt.
+     * Can be called from any thread.
+     */
+    void markDirty() {
+        pendingFrames.set(SETTLE_FRAMES);
+    }
+
+    /**
+     * Marks the current output as outdated by a throttled widget, so the frames are rebuilt at the next deferred rebuild.
+     * Can be called from any thread.
+     */
+    void markDeferred() {
+        deferred = true;
+    }
+
+    /**
+     * Checks if the current output is outdated.
+     *
+     * @return {@code true} if the next frame has to be rebuilt, {@code false} otherwise.
+     */
+    boolean isDirty() {
+        return pendingFrames.get() > 0;
+    }
+
+    /**
+     * Decides how the next frame is produced and updates the counters.
+     *
+     * @param forceRebuild {@code true} if the frame has to be rebuilt regardless of the dirty state.
+     * @return {@code true} if the frame has to be rebuilt, {@code false} if the previous draw data can be replayed.
+     */
+    boolean beginFrame(boolean forceRebuild) {
+        int pending = pendingFrames.getAndUpdate(value -> value > 0 ? value - 1 : 0);
+
+        if (forceRebuild || pending > 0) {
+            rebuiltFrames.incrementAndGet();
+            return true;
+        }
+
+        replayedFrames.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Decides how the next frame is produced while deferred changes are rebuilt at a reduced rate, and updates the counters.
+     * Deferred changes, and deferred work known to the caller, mark the output as outdated once the deferred period
+     * has elapsed since the last deferred rebuild; until then, the frame is replayed unless it has to be rebuilt anyway.
+     *
+     * @param forceRebuild   {@code true} if the frame has to be rebuilt regardless of the dirty state.
+     * @param deferredWork   {@code true} if the caller has work that can wait for the next deferred rebuild.
+     * @param now            the current time in nanoseconds.
+     * @param deferredPeriod the minimum time between two deferred rebuilds in nanoseconds, or {@code 0} to rebuild deferred changes immediately.
+     * @return {@code true} if the frame has to be rebuilt, {@code false} if the previous draw data can be replayed.
+     */
+    boolean beginFrame(boolean forceRebuild, boolean deferredWork, long now, long deferredPeriod) {
+        if ((deferredWork || deferred) && (deferredPeriod == 0 || now - nextDeferredFrame >= 0)) {
+            deferred = false;
+            nextDeferredFrame = now + deferredPeriod;
+            pendingFrames.set(SETTLE_FRAMES);
+        }
+        return beginFrame(forceRebuild);
+    }
+
+    /**
+     * Getting the number of frames rebuilt from scratch
+     *
+     * @return number of rebuilt frames
+     */
+    long getRebuiltFrames() {
+        return rebuiltFrames.get();
+    }
+
+    /**
+     * Getting the number of frames that replayed the previous draw data
+     *
+     * @return number of replayed frames
+     */
+    long getReplayedFrames() {
+        return replayedFrames.get();
+    }
+}
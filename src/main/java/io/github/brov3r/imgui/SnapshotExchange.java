@@ -0,0 +1,33 @@
+package io.github.brov3r.imgui;
+
+/**
+ * Hands immutable snapshots from a producer thread to a consumer thread without locks.
+ * Each snapshot is built by the producer and published through a single volatile reference, so the consumer always sees
+ * a complete snapshot; a snapshot that is replaced before the consumer reads it is never seen.
+ *
+ * @param <T> the snapshot type, which must not be modified after publishing.
+ */
+public class SnapshotExchange<T> {
+    /**
+     * The last published snapshot.
+     */
+    private volatile T latest;
+
+    /**
+     * Publishes a new snapshot, replacing the previous one.
+     *
+     * @param snapshot the snapshot to publish.
+     */
+    public void publish(T snapshot) {
+        latest = snapshot;
+    }
+
+    /**
+     * Getting the last published snapshot
+     *
+     * @return the last published snapshot, or {@code null} if nothing has been published yet
+     */
+    public T latest() {
+        return latest;
+    }
+}
@@ -0,0 +1,120 @@
+package io.github.brov3r.imgui;
+
+/**
+ * Schedules {@link ImGuiWidget#update()} calls and snapshot collection of widgets with a limited update rate.
+ * Widgets are given different phases within their update period, so widgets with the same rate
+ * do not all update on the same frame.
+ */
+class UpdateScheduler {
+    /**
+     * Fractional part of the golden ratio, used to spread the phases of consecutively scheduled widgets evenly.
+     */
+    private static final double PHASE_STEP = 0.6180339887498949;
+
+    /**
+     * Value returned by {@link #advance(int, long, long)} when the scheduled time has not come yet.
+     */
+    private static final long NOT_DUE = Long.MIN_VALUE;
+
+    /**
+     * Phase of the next scheduled widget as a fraction of its update period.
+     */
+    private double nextPhase = 0;
+
+    /**
+     * Checks if the widget's update is due and advances its schedule if so.
+     * Widgets without an update rate are due every frame.
+     *
+     * @param widget the widget to check.
+     * @param now    the current time in nanoseconds.
+     * @return {@code true} if {@link ImGuiWidget#update()} has to be called this frame, {@code false} otherwise.
+     */
+    boolean poll(ImGuiWidget widget, long now) {
+        return poll(widget, now, 0);
+    }
+
+    /**
+     * Checks if the widget's update is due at a frequency limited by the frame budget, and advances its schedule if so.
+     *
+     * @param widget  the widget to check.
+     * @param now     the current time in nanoseconds.
+     * @param maxRate the maximum frequency in Hz, or {@code 0} if the widget is not throttled.
+     * @return {@code true} if {@link ImGuiWidget#update()} has to be called this frame, {@code false} otherwise.
+     */
+    boolean poll(ImGuiWidget widget, long now, int maxRate) {
+        int rate = widget.getUpdateRate();
+        if (maxRate > 0 && (rate <= 0 || rate > maxRate)) {
+            rate = maxRate;
+        }
+        if (rate <= 0) return true;
+
+        long next = advance(rate, widget.nextUpdateTime, now);
+        if (next == NOT_DUE) return false;
+
+        widget.nextUpdateTime = next;
+        return true;
+    }
+
+    /**
+     * Checks if the widget's snapshot collection is due and advances its schedule if so.
+     * Widgets without an update rate collect a snapshot on every game tick.
+     *
+     * @param widget the widget to check.
+     * @param now    the current time in nanoseconds.
+     * @return {@code true} if {@link ImGuiSnapshotWidget#collect()} has to be called this tick, {@code false} otherwise.
+     */
+    boolean pollCollect(ImGuiSnapshotWidget<?> widget, long now) {
+        if (widget.getUpdateRate() <= 0) return true;
+
+        long next = advance(widget.getUpdateRate(), widget.nextCollectTime, now);
+        if (next == NOT_DUE) return false;
+
+        widget.nextCollectTime = next;
+        return true;
+    }
+
+    /**
+     * Computes the next scheduled time of a rate-limited task.
+     *
+     * @param rate      the task frequency in Hz, limited to {@link ImGuiWidget#MAX_UPDATE_RATE}.
+     * @param scheduled the current scheduled time in nanoseconds, or {@code 0} if the task has not been scheduled yet.
+     * @param now       the current time in nanoseconds.
+     * @return the next scheduled time if the task is due now, or {@link #NOT_DUE} otherwise.
+     */
+    private long advance(int rate, long scheduled, long now) {
+        // The rate may be set directly through the protected field, so it is limited here as well
+        long period = 1_000_000_000L / Math.min(rate, ImGuiWidget.MAX_UPDATE_RATE);
+
+        if (scheduled == 0) {
+            return now + (long) (period * nextPhase());
+        }
+
+        long late = now - scheduled;
+        if (late < 0) return NOT_DUE;
+
+        // Keep the phase when periods were missed instead of catching up with several runs
+        return scheduled + (late / period + 1) * period;
+    }
+
+    /**
+     * Checks if the widget has a limited update rate and its update is due, without advancing its schedule.
+     *
+     * @param widget the widget to check.
+     * @param now    the current time in nanoseconds.
+     * @return {@code true} if a scheduled update is pending, {@code false} otherwise.
+     */
+    boolean isScheduledUpdateDue(ImGuiWidget widget, long now) {
+        return widget.getUpdateRate() > 0 && now - widget.nextUpdateTime >= 0;
+    }
+
+    /**
+     * Returns the phase for the next scheduled widget and advances the sequence.
+     *
+     * @return phase as a fraction of the update period, in the range [0, 1)
+     */
+    private double nextPhase() {
+        double phase = nextPhase;
+        nextPhase = (nextPhase + PHASE_STEP) % 1.0;
+        return phase;
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.brov3r.imgui;
+
+/**
+ * Priority of a widget when ImGui exceeds its frame budget.
+ * Widgets of a lower priority yield first, so that the overlays do not lower the game's frame rate.
+ */
+public enum WidgetPriority {
+    /**
+     * Never throttled, e.g. chat or admin tools.
+     */
+    HIGH,
+
+    /**
+     * Throttled when the frame time is far above the budget. The default priority.
+     */
+    NORMAL,
+
+    /**
+     * Throttled as soon as the frame time exceeds the budget, e.g. statistics or decorative overlays.
+     */
+    LOW
+}
@@ -0,0 +1,35 @@
+package io.github.brov3r.imgui;
+
+/**
+ * Durations of the {@link ImGuiWidget#update()} and {@link ImGuiWidget#render()} calls of a widget,
+ * measured by the {@link ImGuiManager} over the most recent frames.
+ */
+public class WidgetProfile {
+    /**
+     * Durations of {@link ImGuiWidget#update()} calls.
+     */
+    private final FrameTimeHistogram update = new FrameTimeHistogram();
+
+    /**
+     * Durations of {@link ImGuiWidget#render()} calls.
+     */
+    private final FrameTimeHistogram render = new FrameTimeHistogram();
+
+    /**
+     * Getting the durations of {@link ImGuiWidget#update()} calls
+     *
+     * @return rolling histogram of update durations
+     */
+    public FrameTimeHistogram getUpdate() {
+        return update;
+    }
+
+    /**
+     * Getting the durations of {@link ImGuiWidget#render()} calls
+     *
+     * @return rolling histogram of render durations
+     */
+    public FrameTimeHistogram getRender() {
+        return render;
+    }
+}
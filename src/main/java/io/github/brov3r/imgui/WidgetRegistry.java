@@ -0,0 +1,217 @@
+package io.github.brov3r.imgui;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Registry of ImGui widgets with constant-time identity add and remove.
+ * <p>
+ * Mutations only update an identity set and mark the registry as changed. Readers get immutable arrays of all widgets
+ * and of the visible ones, sorted by z-order; the arrays are rebuilt at most once after any number of mutations,
+ * so a batch of additions or removals publishes a single snapshot.
+ */
+class WidgetRegistry {
+    /**
+     * Empty widget array shared by empty snapshots.
+     */
+    private static final ImGuiWidget[] EMPTY = new ImGuiWidget[0];
+
+    /**
+     * Render order: ascending z-order, then registration order.
+     * Compares the z-orders copied into the entries, which can not change while the entries are sorted.
+     */
+    private static final Comparator<Entry> RENDER_ORDER = Comparator.<Entry>comparingInt(entry -> entry.zOrder)
+            .thenComparingLong(entry -> entry.sequence);
+
+    /**
+     * Registered widgets, compared by identity. Guarded by {@code this}.
+     */
+    private final Set<ImGuiWidget> members = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Sequence number assigned to the next registered widget. Guarded by {@code this}.
+     */
+    private long nextSequence = 0;
+
+    /**
+     * Published snapshot of all registered widgets in render order.
+     */
+    private volatile ImGuiWidget[] widgets = EMPTY;
+
+    /**
+     * Published snapshot of the visible widgets in render order.
+     */
+    private volatile ImGuiWidget[] visibleWidgets = EMPTY;
+
+    /**
+     * Indicates that the set of widgets or their order changed since the last snapshot.
+     */
+    private volatile boolean changed = false;
+
+    /**
+     * Indicates that the visibility of a widget changed since the last snapshot.
+     */
+    private volatile boolean visibilityChanged = false;
+
+    /**
+     * Registers a widget.
+     *
+     * @param widget the widget to register.
+     * @return {@code true} if the widget was added, {@code false} if it was already registered.
+     */
+    synchronized boolean add(ImGuiWidget widget) {
+        if (!members.add(widget)) return false;
+
+        widget.registrationSequence = nextSequence++;
+        changed = true;
+        return true;
+    }
+
+    /**
+     * Registers several widgets at once.
+     *
+     * @param widgets the widgets to register.
+     * @return {@code true} if any widget was added, {@code false} otherwise.
+     */
+    synchronized boolean addAll(Collection<? extends ImGuiWidget> widgets) {
+        boolean added = false;
+        for (ImGuiWidget widget : widgets) {
+            added |= add(widget);
+        }
+        return added;
+    }
+
+    /**
+     * Unregisters a widget.
+     *
+     * @param widget the widget to unregister.
+     * @return {@code true} if the widget was removed, {@code false} if it was not registered.
+     */
+    synchronized boolean remove(ImGuiWidget widget) {
+        if (!members.remove(widget)) return false;
+
+        changed = true;
+        return true;
+    }
+
+    /**
+     * Unregisters several widgets at once.
+     *
+     * @param widgets the widgets to unregister.
+     * @return {@code true} if any widget was removed, {@code false} otherwise.
+     */
+    synchronized boolean removeAll(Collection<? extends ImGuiWidget> widgets) {
+        boolean removed = false;
+        for (ImGuiWidget widget : widgets) {
+            removed |= remove(widget);
+        }
+        return removed;
+    }
+
+    /**
+     * Checks if a widget is registered.
+     *
+     * @param widget the widget to check.
+     * @return {@code true} if the widget is registered, {@code false} otherwise.
+     */
+    synchronized boolean contains(ImGuiWidget widget) {
+        return members.contains(widget);
+    }
+
+    /**
+     * Notifies the registry that the z-order of a widget changed.
+     */
+    void orderChanged() {
+        changed = true;
+    }
+
+    /**
+     * Notifies the registry that the visibility of a widget changed.
+     */
+    void visibilityChanged() {
+        visibilityChanged = true;
+    }
+
+    /**
+     * Getting all registered widgets in render order
+     *
+     * @return immutable snapshot array, which must not be modified
+     */
+    ImGuiWidget[] getWidgets() {
+        if (changed) publish();
+        return widgets;
+    }
+
+    /**
+     * Getting the visible widgets in render order
+     *
+     * @return immutable snapshot array, which must not be modified
+     */
+    ImGuiWidget[] getVisibleWidgets() {
+        if (changed || visibilityChanged) publish();
+        return visibleWidgets;
+    }
+
+    /**
+     * Rebuilds the published snapshots after changes.
+     */
+    private synchronized void publish() {
+        if (changed) {
+            changed = false;
+
+            // The z-order can be changed by another thread during the sort, so it is read once per widget
+            Entry[] entries = new Entry[members.size()];
+            int index = 0;
+            for (ImGuiWidget widget : members) {
+                entries[index++] = new Entry(widget);
+            }
+            Arrays.sort(entries, RENDER_ORDER);
+
+            ImGuiWidget[] sorted = new ImGuiWidget[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                sorted[i] = entries[i].widget;
+            }
+            widgets = sorted.length == 0 ? EMPTY : sorted;
+        }
+
+        visibilityChanged = false;
+
+        ImGuiWidget[] all = widgets;
+        ImGuiWidget[] visible = new ImGuiWidget[all.length];
+        int count = 0;
+        for (ImGuiWidget widget : all) {
+            if (widget.isVisible()) visible[count++] = widget;
+        }
+        visibleWidgets = count == 0 ? EMPTY : Arrays.copyOf(visible, count);
+    }
+
+    /**
+     * A widget with the render order keys read when the snapshot is built.
+     */
+    private static class Entry {
+        /**
+         * The widget.
+         */
+        final ImGuiWidget widget;
+
+        /**
+         * The z-order of the widget when the snapshot is built.
+         */
+        final int zOrder;
+
+        /**
+         * The registration sequence number of the widget.
+         */
+        final long sequence;
+
+        Entry(ImGuiWidget widget) {
+            this.widget = widget;
+            this.zOrder = widget.getZOrder();
+            this.sequence = widget.registrationSequence;
+        }
+    }
+}
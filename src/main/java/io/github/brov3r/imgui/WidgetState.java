@@ -0,0 +1,339 @@
+package io.github.brov3r.imgui;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent state of one widget, such as filters, column widths or the selected tab.
+ * Values are typed; reading a value with another type than it was written with returns the default value.
+ * Changes are written to the {@link WidgetStateStore} of the plugin in the background, so the setters can be called every frame.
+ * Can be used from any thread.
+ */
+public final class WidgetState {
+    /**
+     * Type tags of the stored values, written as the first byte of each value.
+     */
+    private static final byte TYPE_INT = 1, TYPE_LONG = 2, TYPE_FLOAT = 3, TYPE_DOUBLE = 4, TYPE_BOOLEAN = 5, TYPE_STRING = 6, TYPE_BYTES = 7;
+
+    /**
+     * The identifier of the widget in the store.
+     */
+    private final String id;
+
+    /**
+     * The store that persists the state, or {@code null} if the state is not persisted.
+     */
+    private final WidgetStateStore store;
+
+    /**
+     * Encoded values by key: the type tag followed by the value.
+     */
+    private final Map<String, byte[]> values = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the state of a widget.
+     *
+     * @param id    the identifier of the widget.
+     * @param store the store that persists the state, or {@code null} if the state is not persisted.
+     */
+    WidgetState(String id, WidgetStateStore store) {
+        this.id = id;
+        this.store = store;
+    }
+
+    /**
+     * Getting the identifier of the widget in the store
+     *
+     * @return identifier of the widget
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Checks if the state is persisted, i.e. the widget was bound to a {@link WidgetStateStore}.
+     *
+     * @return {@code true} if changes are written to a store, {@code false} otherwise.
+     */
+    public boolean isPersistent() {
+        return store != null;
+    }
+
+    /**
+     * Checks if a value is stored under a key.
+     *
+     * @param key the key.
+     * @return {@code true} if a value is stored, {@code false} otherwise.
+     */
+    public boolean contains(String key) {
+        return values.containsKey(key);
+    }
+
+    /**
+     * Getting the keys of all stored values
+     *
+     * @return unmodifiable view of the keys
+     */
+    public Set<String> getKeys() {
+        return Collections.unmodifiableSet(values.keySet());
+    }
+
+    /**
+     * Retrieves an int value.
+     *
+     * @param key          the key.
+     * @param defaultValue the value returned if no int value is stored.
+     * @return the stored value, or the default value
+     */
+    public int getInt(String key, int defaultValue) {
+        ByteBuffer value = read(key, TYPE_INT);
+        return value != null ? value.getInt() : defaultValue;
+    }
+
+    /**
+     * Stores an int value.
+     *
+     * @param key   the key.
+     * @param value the value.
+     */
+    public void putInt(String key, int value) {
+        write(key, ByteBuffer.allocate(5).put(TYPE_INT).putInt(value).array());
+    }
+
+    /**
+     * Retrieves a long value.
+     *
+     * @param key          the key.
+     * @param defaultValue the value returned if no long value is stored.
+     * @return the stored value, or the default value
+     */
+    public long getLong(String key, long defaultValue) {
+        ByteBuffer value = read(key, TYPE_LONG);
+        return value != null ? value.getLong() : defaultValue;
+    }
+
+    /**
+     * Stores a long value.
+     *
+     * @param key   the key.
+     * @param value the value.
+     */
+    public void putLong(String key, long value) {
+        write(key, ByteBuffer.allocate(9).put(TYPE_LONG).putLong(value).array());
+    }
+
+    /**
+     * Retrieves a float value.
+     *
+     * @param key          the key.
+     * @param defaultValue the value returned if no float value is stored.
+     * @return the stored value, or the default value
+     */
+    public float getFloat(String key, float defaultValue) {
+        ByteBuffer value = read(key, TYPE_FLOAT);
+        return value != null ? value.getFloat() : defaultValue;
+    }
+
+    /**
+     * Stores a float value.
+     *
+     * @param key   the key.
+     * @param value the value.
+     */
+    public void putFloat(String key, float value) {
+        write(key, ByteBuffer.allocate(5).put(TYPE_FLOAT).putFloat(value).array());
+    }
+
+    /**
+     * Retrieves a double value.
+     *
+     * @param key          the key.
+     * @param defaultValue the value returned if no double value is stored.
+     * @return the stored value, or the default value
+     */
+    public double getDouble(String key, double defaultValue) {
+        ByteBuffer value = read(key, TYPE_DOUBLE);
+        return value != null ? value.getDouble() : defaultValue;
+    }
+
+    /**
+     * Stores a double value.
+     *
+     * @param key   the key.
+     * @param value the value.
+     */
+    public void putDouble(String key, double value) {
+        write(key, ByteBuffer.allocate(9).put(TYPE_DOUBLE).putDouble(value).array());
+    }
+
+    /**
+     * Retrieves a boolean value.
+     *
+     * @param key          the key.
+     * @param defaultValue the value returned if no boolean value is stored.
+     * @return the stored value, or the default value
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        ByteBuffer value = read(key, TYPE_BOOLEAN);
+        return value != null ? value.get() != 0 : defaultValue;
+    }
+
+    /**
+     * Stores a boolean value.
+     *
+     * @param key   the key.
+     * @param value the value.
+     */
+    public void putBoolean(String key, boolean value) {
+        write(key, new byte[]{TYPE_BOOLEAN, (byte) (value ? 1 : 0)});
+    }
+
+    /**
+     * Retrieves a string value.
+     *
+     * @param key          the key.
+     * @param defaultValue the value returned if no string value is stored.
+     * @return the stored value, or the default value
+     */
+    public String getString(String key, String defaultValue) {
+        ByteBuffer value = read(key, TYPE_STRING);
+        return value != null ? StandardCharsets.UTF_8.decode(value).toString() : defaultValue;
+    }
+
+    /**
+     * Stores a string value.
+     *
+     * @param key   the key.
+     * @param value the value, or {@code null} to remove the value.
+     */
+    public void putString(String key, String value) {
+        if (value == null) {
+            remove(key);
+            return;
+        }
+        write(key, tag(TYPE_STRING, value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Retrieves a byte array value, e.g. a value serialized by the widget itself.
+     *
+     * @param key the key.
+     * @return a copy of the stored value, or {@code null} if no byte array value is stored
+     */
+    public byte[] getBytes(String key) {
+        ByteBuffer value = read(key, TYPE_BYTES);
+        if (value == null) return null;
+
+        byte[] data = new byte[value.remaining()];
+        value.get(data);
+        return data;
+    }
+
+    /**
+     * Stores a byte array value.
+     *
+     * @param key   the key.
+     * @param value the value, or {@code null} to remove the value.
+     */
+    public void putBytes(String key, byte[] value) {
+        if (value == null) {
+            remove(key);
+            return;
+        }
+        write(key, tag(TYPE_BYTES, value));
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @param key the key.
+     */
+    public void remove(String key) {
+        if (values.remove(key) != null) {
+            changed();
+        }
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void clear() {
+        if (values.isEmpty()) return;
+
+        values.clear();
+        changed();
+    }
+
+    /**
+     * Getting the encoded values, used by the store to serialize the state
+     *
+     * @return encoded values by key
+     */
+    Map<String, byte[]> getValues() {
+        return values;
+    }
+
+    /**
+     * Sets an encoded value read by the store, without scheduling a write.
+     *
+     * @param key   the key.
+     * @param value the type tag followed by the value.
+     */
+    void load(String key, byte[] value) {
+        values.put(key, value);
+    }
+
+    /**
+     * Retrieves a value of a type.
+     *
+     * @param key  the key.
+     * @param type the expected type tag.
+     * @return the value without the type tag, or {@code null} if no value of the type is stored
+     */
+    private ByteBuffer read(String key, byte type) {
+        byte[] value = values.get(key);
+        if (value == null || value.length == 0 || value[0] != type) return null;
+
+        return ByteBuffer.wrap(value, 1, value.length - 1);
+    }
+
+    /**
+     * Stores an encoded value and schedules a write if it changed.
+     *
+     * @param key   the key.
+     * @param value the type tag followed by the value.
+     */
+    private void write(String key, byte[] value) {
+        if (!Arrays.equals(values.put(key, value), value)) {
+            changed();
+        }
+    }
+
+    /**
+     * Schedules a write of the store.
+     */
+    private void changed() {
+        if (store != null) {
+            store.changed();
+        }
+    }
+
+    /**
+     * Prepends a type tag to a value.
+     *
+     * @param type the type tag.
+     * @param data the value.
+     * @return the encoded value
+     */
+    private static byte[] tag(byte type, byte[] data) {
+        byte[] value = new byte[data.length + 1];
+        value[0] = type;
+        System.arraycopy(data, 0, value, 1, data.length);
+        return value;
+    }
+}
@@ -0,0 +1,226 @@
+package io.github.brov3r.imgui;
+
+import com.avrix.plugin.Plugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persists the {@link WidgetState} of the widgets of one plugin in a binary file in the plugin config folder.
+ * The file is read once into memory when the store is opened. Changes are batched and written
+ * in the background a moment after the last change, and when the game exits.
+ * <p>
+ * File format: the magic number, the format version, the number of widgets, and for each widget its identifier,
+ * the number of values, and for each value its key and its length-prefixed encoded value.
+ * Strings are written as an unsigned short length followed by UTF-8 bytes.
+ */
+public final class WidgetStateStore {
+    /**
+     * Name of the file in the plugin config folder that holds the widget states.
+     */
+    private static final String FILE_NAME = "imgui-widgets.bin";
+
+    /**
+     * Magic number at the beginning of the file: "IGWS".
+     */
+    private static final int MAGIC = 0x49475753;
+
+    /**
+     * Version of the file format; files of other versions are ignored.
+     */
+    private static final short FORMAT_VERSION = 1;
+
+    /**
+     * Delay in milliseconds after the last change before the file is written.
+     */
+    private static final long WRITE_DELAY = 2000;
+
+    /**
+     * Opened stores by the absolute path of their file.
+     */
+    private static final Map<Path, WidgetStateStore> stores = new ConcurrentHashMap<>();
+
+    /**
+     * Widget states by widget identifier.
+     */
+    private final Map<String, WidgetState> states = new ConcurrentHashMap<>();
+
+    /**
+     * Writes the file in the background.
+     */
+    private final DebouncedFileWriter writer;
+
+    /**
+     * Creates a store and reads its file.
+     *
+     * @param file the file of the store.
+     */
+    private WidgetStateStore(Path file) {
+        this.writer = new DebouncedFileWriter(file, WRITE_DELAY);
+        read(file);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(writer::flush, "ImGuiAPI-WidgetStateFlush"));
+    }
+
+    /**
+     * Getting the store of a plugin, opening it on first use
+     *
+     * @param plugin the plugin whose config folder holds the store.
+     * @return the store of the plugin
+     */
+    public static WidgetStateStore of(Plugin plugin) {
+        return open(plugin.getConfigFolder().toPath().resolve(FILE_NAME));
+    }
+
+    /**
+     * Getting the store of a file, opening it on first use
+     *
+     * @param file the file of the store.
+     * @return the store of the file
+     */
+    public static WidgetStateStore open(Path file) {
+        return stores.computeIfAbsent(file.toAbsolutePath().normalize(), WidgetStateStore::new);
+    }
+
+    /**
+     * Getting the state of a widget, creating an empty state if none is stored
+     *
+     * @param widgetId the identifier of the widget, unique within the plugin.
+     * @return the state of the widget
+     */
+    public WidgetState getState(String widgetId) {
+        return states.computeIfAbsent(widgetId, id -> new WidgetState(id, this));
+    }
+
+    /**
+     * Removes the state of a widget from the store.
+     *
+     * @param widgetId the identifier of the widget.
+     */
+    public void removeState(String widgetId) {
+        if (states.remove(widgetId) != null) {
+            changed();
+        }
+    }
+
+    /**
+     * Writes pending changes immediately on the calling thread.
+     */
+    public void flush() {
+        writer.flush();
+    }
+
+    /**
+     * Schedules a write of the file. The file is serialized on the writer thread, once for a batch of changes.
+     */
+    void changed() {
+        writer.write(this::serialize);
+    }
+
+    /**
+     * Serializes all widget states.
+     *
+     * @return the content of the file, or {@code null} if a state can not be serialized
+     */
+    private byte[] serialize() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+
+            out.writeInt(MAGIC);
+            out.writeShort(FORMAT_VERSION);
+
+            Map<String, WidgetState> snapshot = Map.copyOf(states);
+            out.writeInt(snapshot.size());
+            for (WidgetState state : snapshot.values()) {
+                Map<String, byte[]> values = Map.copyOf(state.getValues());
+
+                writeString(out, state.getId());
+                out.writeInt(values.size());
+                for (Map.Entry<String, byte[]> value : values.entrySet()) {
+                    writeString(out, value.getKey());
+                    out.writeInt(value.getValue().length);
+                    out.write(value.getValue());
+                }
+            }
+
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            System.out.printf("[!] Failed to serialize widget states: %s%n", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads the widget states from the file. The file is read into a heap buffer in one call and not kept open or mapped,
+     * so the writer can replace it at any time.
+     * A missing file, a file of another version or a damaged file leaves the store empty.
+     *
+     * @param file the file of the store.
+     */
+    private void read(Path file) {
+        if (!Files.isRegularFile(file)) return;
+
+        try {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+
+            if (in.getInt() != MAGIC || in.getShort() != FORMAT_VERSION) {
+                System.out.printf("[!] Ignoring widget state file '%s' of another format%n", file.getFileName());
+                return;
+            }
+
+            int widgetCount = in.getInt();
+            for (int i = 0; i < widgetCount; i++) {
+                WidgetState state = new WidgetState(readString(in), this);
+
+                int valueCount = in.getInt();
+                for (int j = 0; j < valueCount; j++) {
+                    String key = readString(in);
+                    byte[] value = new byte[in.getInt()];
+                    in.get(value);
+                    state.load(key, value);
+                }
+                states.put(state.getId(), state);
+            }
+        } catch (IOException | BufferUnderflowException | NegativeArraySizeException e) {
+            System.out.printf("[!] Failed to read widget state file '%s': %s%n", file.getFileName(), e);
+            states.clear();
+        }
+    }
+
+    /**
+     * Writes a string as an unsigned short length followed by UTF-8 bytes.
+     *
+     * @param out   the output.
+     * @param value the string.
+     * @throws IOException if the string is too long.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) throw new IOException("String too long: " + bytes.length);
+
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+     *
+     * @param in the input.
+     * @return the string
+     */
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.brov3r.imgui.patches;
+
+import com.avrix.agent.ClassTransformer;
+import io.github.brov3r.imgui.ImGuiManager;
+import javassist.CannotCompileException;
+
+/**
+ * GameKeyboard patcher
+ */
+public class GameKeyboardPatch extends ClassTransformer {
+    /**
+     * Key queries hidden from the game while ImGui captures the keyboard.
+     */
+    private static final String[] KEY_METHODS = {"isKeyDown", "isKeyPressed", "wasKeyDown"};
+
+    /**
+     * Constructor for creating a {@link ClassTransformer} object.
+     */
+    public GameKeyboardPatch() {
+        super("zombie.input.GameKeyboard");
+    }
+
+    /**
+     * Method for performing class modification.
+     * The implementing method must contain the logic for modifying the target class.
+     */
+    @Override
+    public void modifyClass() {
+        for (String method : KEY_METHODS) {
+            getModifierBuilder().modifyMethod(method, (ctClass, ctMethod) -> {
+                try {
+                    ctMethod.insertBefore("{ if (" + ImGuiManager.class.getName() + ".isKeyboardCapture()) return false; }");
+                } catch (CannotCompileException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+    }
+}
@@ -23,7 +23,15 @@ public class GameWindowPatch extends ClassTransformer {
     public void modifyClass() {
         getModifierBuilder().modifyMethod("InitDisplay", (ctClass, ctMethod) -> {
             try {
-                ctMethod.insertAfter(ImGuiManager.class.getName() + ".init();");
+                ctMethod.insertAfter(ImGuiManager.class.getName() + ".onDisplayCreated();");
+            } catch (CannotCompileException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        getModifierBuilder().modifyMethod("logic", (ctClass, ctMethod) -> {
+            try {
+                ctMethod.insertAfter(ImGuiManager.class.getName() + ".logic();");
             } catch (CannotCompileException e) {
                 throw new RuntimeException(e);
             }
@@ -0,0 +1,52 @@
+package io.github.brov3r.imgui.patches;
+
+import com.avrix.agent.ClassTransformer;
+import io.github.brov3r.imgui.ImGuiManager;
+import javassist.CannotCompileException;
+
+/**
+ * Mouse patcher
+ */
+public class MousePatch extends ClassTransformer {
+    /**
+     * Mouse button queries hidden from the game while ImGui captures the mouse.
+     */
+    private static final String[] BUTTON_METHODS = {
+            "isButtonDown",
+            "isLeftDown", "isLeftPressed", "isLeftReleased",
+            "isRightDown", "isRightPressed", "isRightReleased",
+            "isMiddleDown"
+    };
+
+    /**
+     * Constructor for creating a {@link ClassTransformer} object.
+     */
+    public MousePatch() {
+        super("zombie.input.Mouse");
+    }
+
+    /**
+     * Method for performing class modification.
+     * The implementing method must contain the logic for modifying the target class.
+     */
+    @Override
+    public void modifyClass() {
+        for (String method : BUTTON_METHODS) {
+            getModifierBuilder().modifyMethod(method, (ctClass, ctMethod) -> {
+                try {
+                    ctMethod.insertBefore("{ if (" + ImGuiManager.class.getName() + ".isMouseCapture()) return false; }");
+                } catch (CannotCompileException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+
+        getModifierBuilder().modifyMethod("getWheelState", (ctClass, ctMethod) -> {
+            try {
+                ctMethod.insertBefore("{ if (" + ImGuiManager.class.getName() + ".isMouseCapture()) return 0; }");
+            } catch (CannotCompileException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+}